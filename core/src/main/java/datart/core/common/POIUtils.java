@@ -20,6 +20,8 @@ package datart.core.common;
 import datart.core.base.consts.FileFormat;
 import datart.core.base.exception.BaseException;
 import datart.core.data.provider.Column;
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.DataCursor;
 import datart.core.data.provider.Dataframe;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
@@ -69,8 +71,29 @@ public class POIUtils {
         fillSheet(workbook.createSheet(sheetName), sheetData);
     }
 
+    /**
+     * 从游标中逐行读取数据写入新的sheet，配合 SXSSFWorkbook 使用时已写入的行会刷新到临时文件中
+     */
+    public static void withSheet(Workbook workbook, String sheetName, DataCursor cursor) throws Exception {
+        Sheet sheet = workbook.createSheet(sheetName);
+        List<Column> columns = cursor.getColumns();
+        writeHeader(columns, sheet);
+        int rowIndex = 1;
+        while (cursor.next()) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+                Object val = cursor.get(columnIndex);
+                row.createCell(columnIndex).setCellValue(val == null ? null : val.toString());
+            }
+        }
+    }
+
     private static void fillSheet(Sheet sheet, Dataframe data) {
         writeHeader(data.getColumns(), sheet);
+        if (data instanceof ColumnarDataframe) {
+            fillSheet(sheet, (ColumnarDataframe) data);
+            return;
+        }
         int rowIndex = 1;
         for (List<Object> dataRow : data.getRows()) {
             Row row = sheet.createRow(rowIndex);
@@ -83,6 +106,18 @@ public class POIUtils {
         }
     }
 
+    private static void fillSheet(Sheet sheet, ColumnarDataframe data) {
+        int columnCount = data.getColumns().size();
+        int rowCount = data.getRowCount();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            Row row = sheet.createRow(rowIndex + 1);
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                Object val = data.getValue(rowIndex, columnIndex);
+                row.createCell(columnIndex).setCellValue(val == null ? null : val.toString());
+            }
+        }
+    }
+
     private static void writeHeader(List<Column> columns, Sheet sheet) {
         Row row = sheet.createRow(0);
         for (int i = 0; i < columns.size(); i++) {
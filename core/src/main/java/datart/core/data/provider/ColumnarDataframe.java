@@ -0,0 +1,235 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import datart.core.data.provider.vector.ColumnVector;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 列式存储的Dataframe。数据按列保存在 {@link ColumnVector} 中，{@link #getRows()} 返回按行访问的视图，
+ * 因此对于只按行读取数据的调用方和序列化结果，与 {@link Dataframe} 完全一致。
+ * <p>
+ * A Dataframe that keeps its data in typed {@link ColumnVector}s. {@link #getRows()} returns a read-only row view,
+ * so callers that read rows, and the JSON output, see exactly what a row based {@link Dataframe} would produce.
+ */
+public class ColumnarDataframe extends Dataframe {
+
+    private List<ColumnVector> vectors;
+
+    public ColumnarDataframe() {
+    }
+
+    public ColumnarDataframe(List<Column> columns) {
+        super.setColumns(new ArrayList<>(columns));
+        this.vectors = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            vectors.add(ColumnVector.create(column.getType()));
+        }
+    }
+
+    public ColumnarDataframe(List<Column> columns, List<ColumnVector> vectors) {
+        super.setColumns(new ArrayList<>(columns));
+        this.vectors = new ArrayList<>(vectors);
+    }
+
+    public static ColumnarDataframe from(Dataframe dataframe) {
+        if (dataframe instanceof ColumnarDataframe) {
+            return (ColumnarDataframe) dataframe;
+        }
+        ColumnarDataframe columnar = new ColumnarDataframe(dataframe.getColumns() == null
+                ? Collections.emptyList()
+                : dataframe.getColumns());
+        columnar.setName(dataframe.getName());
+        columnar.setVizType(dataframe.getVizType());
+        columnar.setVizId(dataframe.getVizId());
+        columnar.setPageInfo(dataframe.getPageInfo());
+        columnar.setScript(dataframe.getScript());
+        columnar.appendRows(dataframe.getRows());
+        return columnar;
+    }
+
+    public void append(int columnIndex, Object value) {
+        ColumnVector vector = vectors.get(columnIndex);
+        if (value != null && !vector.accept(value)) {
+            vector = vector.widen(value);
+            vectors.set(columnIndex, vector);
+        }
+        vector.append(value);
+    }
+
+    public Object getValue(int rowIndex, int columnIndex) {
+        return vectors.get(columnIndex).get(rowIndex);
+    }
+
+    @JsonIgnore
+    public ColumnVector getVector(int columnIndex) {
+        return vectors.get(columnIndex);
+    }
+
+    @JsonIgnore
+    public List<ColumnVector> getVectors() {
+        return vectors;
+    }
+
+    @JsonIgnore
+    public int getRowCount() {
+        return vectors == null || vectors.isEmpty() ? 0 : vectors.get(0).size();
+    }
+
+    /**
+     * 列中不同值的个数，未统计时返回-1
+     * <p>
+     * Distinct value count of a column, -1 if unknown.
+     */
+    public int getCardinality(int columnIndex) {
+        return vectors.get(columnIndex).cardinality();
+    }
+
+    /**
+     * 复制 [fromRow, toRow) 范围内的行
+     * <p>
+     * Copy the rows in [fromRow, toRow) into a new dataframe.
+     */
+    public ColumnarDataframe slice(int fromRow, int toRow) {
+        ColumnarDataframe slice = new ColumnarDataframe(getColumns());
+        slice.setName(getName());
+        slice.setVizType(getVizType());
+        slice.setVizId(getVizId());
+        slice.setScript(getScript());
+        for (int i = 0; i < vectors.size(); i++) {
+            ColumnVector vector = vectors.get(i);
+            for (int row = fromRow; row < toRow; row++) {
+                slice.append(i, vector.get(row));
+            }
+        }
+        slice.trim();
+        return slice;
+    }
+
+    /**
+     * 追加另一个列相同的数据集中的所有行
+     * <p>
+     * Append all rows of a dataframe with the same columns.
+     */
+    public void appendAll(ColumnarDataframe other) {
+        int rows = other.getRowCount();
+        for (int i = 0; i < vectors.size(); i++) {
+            ColumnVector vector = other.getVector(i);
+            for (int row = 0; row < rows; row++) {
+                append(i, vector.get(row));
+            }
+        }
+    }
+
+    /**
+     * 估算列数据占用的堆内存（字节）
+     * <p>
+     * Estimated heap footprint of the column vectors in bytes.
+     */
+    public long estimatedSize() {
+        long size = 0;
+        for (ColumnVector vector : vectors) {
+            size += vector.estimatedSize();
+        }
+        return size;
+    }
+
+    public void removeColumn(int columnIndex) {
+        getColumns().remove(columnIndex);
+        vectors.remove(columnIndex);
+    }
+
+    public void trim() {
+        for (ColumnVector vector : vectors) {
+            vector.trim();
+        }
+    }
+
+    @Override
+    public List<List<Object>> getRows() {
+        if (vectors == null) {
+            return super.getRows();
+        }
+        return new RowView();
+    }
+
+    @Override
+    public void setRows(List<List<Object>> rows) {
+        if (vectors == null) {
+            super.setRows(rows);
+            return;
+        }
+        vectors.clear();
+        for (Column column : getColumns()) {
+            vectors.add(ColumnVector.create(column.getType()));
+        }
+        appendRows(rows);
+    }
+
+    private void appendRows(List<List<Object>> rows) {
+        if (rows == null) {
+            return;
+        }
+        for (List<Object> row : rows) {
+            for (int i = 0; i < vectors.size(); i++) {
+                append(i, row.get(i));
+            }
+        }
+        trim();
+    }
+
+    private class RowView extends AbstractList<List<Object>> implements RandomAccess {
+
+        @Override
+        public List<Object> get(int index) {
+            return new Row(index);
+        }
+
+        @Override
+        public int size() {
+            return getRowCount();
+        }
+    }
+
+    private class Row extends AbstractList<Object> implements RandomAccess {
+
+        private final int rowIndex;
+
+        private Row(int rowIndex) {
+            this.rowIndex = rowIndex;
+        }
+
+        @Override
+        public Object get(int index) {
+            return vectors.get(index).get(rowIndex);
+        }
+
+        @Override
+        public int size() {
+            return vectors.size();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * 逐行读取查询结果的游标，使用完毕后必须关闭以释放底层连接。
+ * <p>
+ * A forward-only cursor over a query result. It must be closed to release the underlying resources.
+ */
+public interface DataCursor extends Closeable {
+
+    List<Column> getColumns();
+
+    /**
+     * 移动到下一行，没有更多数据时返回false
+     * <p>
+     * Move to the next row. Returns false when there are no more rows.
+     */
+    boolean next() throws Exception;
+
+    /**
+     * 读取当前行的值
+     * <p>
+     * Read a value of the current row.
+     */
+    Object get(int columnIndex) throws Exception;
+
+    /**
+     * 读取最多 maxRows 行数据，没有更多数据时返回null
+     * <p>
+     * Read up to maxRows rows into a dataframe. Returns null when the cursor is exhausted.
+     */
+    default Dataframe nextBatch(int maxRows) throws Exception {
+        List<Column> columns = getColumns();
+        ColumnarDataframe batch = null;
+        int count = 0;
+        while (count < maxRows && next()) {
+            if (batch == null) {
+                batch = new ColumnarDataframe(columns);
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                batch.append(i, get(i));
+            }
+            count++;
+        }
+        if (batch != null) {
+            batch.trim();
+        }
+        return batch;
+    }
+
+}
@@ -21,6 +21,7 @@ package datart.core.data.provider;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import datart.core.base.AutoCloseBean;
+import datart.core.base.PageInfo;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -78,6 +79,24 @@ public abstract class DataProvider extends AutoCloseBean {
 
     public abstract Dataframe execute(DataProviderSource config, QueryScript script, ExecuteParam executeParam) throws Exception;
 
+    /**
+     * 以游标的方式执行查询，调用方逐行读取结果，使用完毕后需关闭游标。游标返回全部结果，忽略分页参数。
+     * 默认实现通过 execute 加载全部数据后再包装为游标，支持流式读取的DataProvider应覆盖此方法。
+     * <p>
+     * Execute the query and return a cursor over its whole result, paging is ignored. The caller must close the
+     * cursor. The default implementation wraps the unpaged result of execute, data providers that can stream should
+     * override it.
+     */
+    public DataCursor executeStreaming(DataProviderSource config, QueryScript script, ExecuteParam executeParam) throws Exception {
+        PageInfo pageInfo = executeParam.getPageInfo();
+        executeParam.setPageInfo(PageInfo.builder().pageNo(1).pageSize(Integer.MAX_VALUE).build());
+        try {
+            return new DataframeCursor(execute(config, script, executeParam));
+        } finally {
+            executeParam.setPageInfo(pageInfo);
+        }
+    }
+
     /**
      * 返回DataProvider的type，type的值由实现者定义。
      * 这个type值作为DataProvider的唯一标识，必须是全局唯一的。
@@ -112,4 +131,28 @@ public abstract class DataProvider extends AutoCloseBean {
 
     public abstract boolean validateFunction(DataProviderSource source, String snippet);
 
+    /**
+     * 释放为数据源缓存的连接等资源。数据源配置修改或删除后调用，下次使用时按新配置重新创建。
+     * <p>
+     * Release the resources cached for a source, such as its connection pool. Called after the source is updated
+     * or deleted, the resources are recreated from the new config on next use.
+     */
+    public void resetSource(DataProviderSource source) {
+    }
+
+    /**
+     * 清除数据源已缓存的库、表、列等元数据
+     * <p>
+     * Drop the cached database, table and column metadata of a source.
+     */
+    public void refreshMetadata(DataProviderSource source) {
+    }
+
+    /**
+     * 数据源连接池的统计信息，没有连接池时返回null
+     */
+    public PoolStatistics getPoolStatistics(DataProviderSource source) {
+        return null;
+    }
+
 }
\ No newline at end of file
@@ -38,8 +38,16 @@ public interface DataProviderManager {
 
     Dataframe execute(DataProviderSource source, QueryScript queryScript, ExecuteParam param) throws Exception;
 
+    DataCursor executeStreaming(DataProviderSource source, QueryScript queryScript, ExecuteParam param) throws Exception;
+
     Set<StdSqlOperator> supportedStdFunctions(DataProviderSource source);
 
     boolean validateFunction(DataProviderSource source, String snippet);
 
+    void resetSource(DataProviderSource source);
+
+    void refreshMetadata(DataProviderSource source);
+
+    PoolStatistics getPoolStatistics(DataProviderSource source);
+
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于已加载的Dataframe的游标，用于不支持流式读取的DataProvider。
+ * <p>
+ * A cursor over an already materialized dataframe, used by data providers that can not stream their results.
+ */
+public class DataframeCursor implements DataCursor {
+
+    private final List<Column> columns;
+
+    private final List<List<Object>> rows;
+
+    private int position = -1;
+
+    private List<Object> current;
+
+    public DataframeCursor(Dataframe dataframe) {
+        this.columns = dataframe.getColumns() == null ? Collections.emptyList() : dataframe.getColumns();
+        this.rows = dataframe.getRows() == null ? Collections.emptyList() : dataframe.getRows();
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public boolean next() {
+        if (position + 1 >= rows.size()) {
+            current = null;
+            return false;
+        }
+        current = rows.get(++position);
+        return true;
+    }
+
+    @Override
+    public Object get(int columnIndex) {
+        return current.get(columnIndex);
+    }
+
+    @Override
+    public void close() {
+        current = null;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 数据源连接池的运行统计
+ * <p>
+ * Usage and wait statistics of the connection pool of a source.
+ */
+@Data
+public class PoolStatistics {
+
+    private String sourceId;
+
+    private int maxActive;
+
+    private int activeCount;
+
+    private int idleCount;
+
+    private int activePeak;
+
+    /**
+     * 正在等待连接的线程数
+     */
+    private int waitThreadCount;
+
+    /**
+     * 累计等待连接的次数
+     */
+    private long waitCount;
+
+    /**
+     * 累计等待连接的时长（毫秒）
+     */
+    private long waitMillis;
+
+    private long connectCount;
+
+    /**
+     * 在全局连接调度中排队等待的请求数
+     */
+    private int queuedCount;
+
+    private Date createTime;
+
+    private Date lastAccessTime;
+
+}
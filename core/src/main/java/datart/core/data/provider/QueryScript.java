@@ -41,7 +41,8 @@ public class QueryScript implements Serializable {
     private List<ScriptVariable> variables;
 
     public String toQueryKey() {
-        return 'Q' + DigestUtils.md5Hex(viewId
+        return 'Q' + DigestUtils.md5Hex(sourceId
+                + viewId
                 + script
                 + (variables == null ? "" : variables.stream().map(ScriptVariable::toString).collect(Collectors.joining(""))));
     }
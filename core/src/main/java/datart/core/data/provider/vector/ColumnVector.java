@@ -0,0 +1,155 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider.vector;
+
+import datart.core.base.consts.ValueType;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+/**
+ * 列式存储的一列数据，数值型数据保存在基本类型数组中，空值通过位图标记。
+ * <p>
+ * A single column of a columnar dataframe. Primitive values are kept in typed arrays and nulls are tracked by a bitmap.
+ */
+public abstract class ColumnVector implements Serializable {
+
+    protected static final int DEFAULT_CAPACITY = 16;
+
+    protected static final long OBJECT_OVERHEAD = 16;
+
+    protected int size;
+
+    protected final BitSet nulls;
+
+    protected ColumnVector() {
+        this(0, new BitSet());
+    }
+
+    protected ColumnVector(int size, BitSet nulls) {
+        this.size = size;
+        this.nulls = nulls;
+    }
+
+    public static ColumnVector create(ValueType valueType) {
+        if (valueType == null) {
+            return new ObjectColumnVector(DEFAULT_CAPACITY);
+        }
+        switch (valueType) {
+            case NUMERIC:
+                return new LongColumnVector(DEFAULT_CAPACITY);
+            case DATE:
+                return new TimestampColumnVector(DEFAULT_CAPACITY);
+            case STRING:
+                return new StringColumnVector(DEFAULT_CAPACITY);
+            default:
+                return new ObjectColumnVector(DEFAULT_CAPACITY);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    public void append(Object value) {
+        if (value == null) {
+            appendNull();
+        } else {
+            ensureCapacity(size + 1);
+            appendValue(value);
+            size++;
+        }
+    }
+
+    public void appendNull() {
+        ensureCapacity(size + 1);
+        nulls.set(size);
+        size++;
+    }
+
+    /**
+     * 返回当前列是否可以保存这个值（非空）
+     * <p>
+     * Whether this vector can hold the given non-null value without losing its type.
+     */
+    public abstract boolean accept(Object value);
+
+    public abstract Object get(int row);
+
+    /**
+     * 将当前列转换为可以同时容纳已有数据和新值的列
+     * <p>
+     * Convert this vector to one that can hold both the existing values and the given value.
+     */
+    public ColumnVector widen(Object value) {
+        ObjectColumnVector vector = new ObjectColumnVector(Math.max(size, DEFAULT_CAPACITY));
+        for (int i = 0; i < size; i++) {
+            vector.append(get(i));
+        }
+        return vector;
+    }
+
+    /**
+     * 估算当前占用的堆内存（字节），用于内存预算统计
+     * <p>
+     * Estimated heap footprint of this vector in bytes, used for memory budget accounting.
+     */
+    public abstract long estimatedSize();
+
+    protected long nullsSize() {
+        return OBJECT_OVERHEAD + nulls.size() / 8;
+    }
+
+    protected static long estimateString(String value) {
+        return OBJECT_OVERHEAD * 2 + 2L * value.length();
+    }
+
+    /**
+     * 列中不同值的个数，未统计时返回-1
+     * <p>
+     * Number of distinct non-null values in this column, or -1 when the vector does not track it.
+     */
+    public int cardinality() {
+        return -1;
+    }
+
+    /**
+     * 释放数组中未使用的空间
+     * <p>
+     * Release the unused capacity of the underlying array.
+     */
+    public abstract void trim();
+
+    protected abstract void appendValue(Object value);
+
+    protected abstract void ensureCapacity(int capacity);
+
+    protected static int newCapacity(int current, int required) {
+        int capacity = Math.max(current, DEFAULT_CAPACITY);
+        while (capacity < required) {
+            capacity = capacity + (capacity >> 1);
+        }
+        return capacity;
+    }
+
+}
@@ -0,0 +1,493 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider.vector;
+
+import datart.core.base.PageInfo;
+import datart.core.base.consts.ValueType;
+import datart.core.data.provider.Column;
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.Dataframe;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Dataframe的列式二进制编码。数值按类型打包（整数和时间戳使用变长编码），字符串列只写入字典和下标，
+ * 数据较大时对数据块进行压缩。
+ * <p>
+ * Versioned columnar binary encoding of a Dataframe. Integers and timestamps are varint packed, string columns are
+ * written as a dictionary plus codes and large payloads are deflate compressed.
+ * <p>
+ * Layout: MAGIC(4) VERSION(1) FLAGS(1) BODY, where BODY is optionally deflated.
+ */
+public class DataframeCodec {
+
+    public static final byte[] MAGIC = {'D', 'T', 'F', 'C'};
+
+    public static final byte VERSION = 1;
+
+    /**
+     * 超过此大小（字节）的数据块会被压缩
+     */
+    public static final int DEFAULT_COMPRESS_THRESHOLD = 64 * 1024;
+
+    private static final byte FLAG_COMPRESSED = 1;
+
+    private static final byte VECTOR_LONG = 1;
+
+    private static final byte VECTOR_DOUBLE = 2;
+
+    private static final byte VECTOR_TIMESTAMP = 3;
+
+    private static final byte VECTOR_STRING = 4;
+
+    private static final byte VECTOR_OBJECT = 5;
+
+    private static final byte VALUE_NULL = 0;
+
+    private static final byte VALUE_STRING = 1;
+
+    private static final byte VALUE_LONG = 2;
+
+    private static final byte VALUE_DOUBLE = 3;
+
+    private static final byte VALUE_BOOLEAN = 4;
+
+    private static final byte VALUE_DECIMAL = 5;
+
+    private static final byte VALUE_TIMESTAMP = 6;
+
+    private static final byte VALUE_SQL_DATE = 7;
+
+    private static final byte VALUE_DATE = 8;
+
+    private static final byte VALUE_LOCAL_DATE_TIME = 9;
+
+    private static final byte VALUE_LOCAL_DATE = 10;
+
+    private static final byte VALUE_BIG_INTEGER = 11;
+
+    private static final byte VALUE_FLOAT = 12;
+
+    private static final byte VALUE_TIME = 13;
+
+    private static final byte VALUE_BYTES = 14;
+
+    /**
+     * 数据中包含编码不支持的值（如驱动特有的对象），调用方应改用JDK序列化或JSON等其他格式
+     * <p>
+     * Thrown when the dataframe holds a value the codec can not restore exactly, such as a driver specific object.
+     * Callers fall back to another format for the whole dataframe.
+     */
+    public static class UnsupportedValueException extends IOException {
+
+        public UnsupportedValueException(Class<?> type) {
+            super("Unsupported value type " + type.getName());
+        }
+    }
+
+    public static boolean isEncoded(byte[] bytes) {
+        if (bytes == null || bytes.length < MAGIC.length + 2) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @throws UnsupportedValueException 数据中包含不支持的值
+     */
+    public static byte[] encode(Dataframe dataframe) throws IOException {
+        return encode(dataframe, DEFAULT_COMPRESS_THRESHOLD);
+    }
+
+    /**
+     * @param compressThreshold 数据块超过此大小时压缩，小于0时不压缩
+     */
+    public static byte[] encode(Dataframe dataframe, int compressThreshold) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            writeBody(ColumnarDataframe.from(dataframe), out);
+        }
+        boolean compress = compressThreshold >= 0 && body.size() > compressThreshold;
+        ByteArrayOutputStream result = new ByteArrayOutputStream(compress ? body.size() / 4 : body.size() + 8);
+        result.write(MAGIC);
+        result.write(VERSION);
+        result.write(compress ? FLAG_COMPRESSED : 0);
+        if (compress) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream out = new DeflaterOutputStream(result, deflater)) {
+                body.writeTo(out);
+            } finally {
+                deflater.end();
+            }
+        } else {
+            body.writeTo(result);
+        }
+        return result.toByteArray();
+    }
+
+    public static Dataframe decode(byte[] bytes) throws IOException {
+        if (!isEncoded(bytes)) {
+            throw new IOException("Not an encoded dataframe");
+        }
+        int version = bytes[MAGIC.length];
+        if (version != VERSION) {
+            throw new IOException("Unsupported dataframe encoding version " + version);
+        }
+        int offset = MAGIC.length + 2;
+        InputStream in = new ByteArrayInputStream(bytes, offset, bytes.length - offset);
+        if ((bytes[MAGIC.length + 1] & FLAG_COMPRESSED) != 0) {
+            in = new InflaterInputStream(in);
+        }
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(in))) {
+            return readBody(dis);
+        }
+    }
+
+    private static void writeBody(ColumnarDataframe dataframe, DataOutputStream out) throws IOException {
+        writeString(out, dataframe.getName());
+        writeString(out, dataframe.getVizType());
+        writeString(out, dataframe.getVizId());
+        writeString(out, dataframe.getScript());
+        PageInfo pageInfo = dataframe.getPageInfo();
+        out.writeBoolean(pageInfo != null);
+        if (pageInfo != null) {
+            writeVarLong(out, pageInfo.getPageSize());
+            writeVarLong(out, pageInfo.getPageNo());
+            writeVarLong(out, pageInfo.getTotal());
+        }
+        List<Column> columns = dataframe.getColumns();
+        int rowCount = dataframe.getRowCount();
+        writeVarLong(out, columns.size());
+        writeVarLong(out, rowCount);
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            writeString(out, column.getName());
+            out.writeByte(column.getType() == null ? -1 : column.getType().ordinal());
+            writeVector(out, dataframe.getVector(i), rowCount);
+        }
+    }
+
+    private static ColumnarDataframe readBody(DataInputStream in) throws IOException {
+        String name = readString(in);
+        String vizType = readString(in);
+        String vizId = readString(in);
+        String script = readString(in);
+        PageInfo pageInfo = null;
+        if (in.readBoolean()) {
+            pageInfo = PageInfo.builder()
+                    .pageSize(readVarLong(in))
+                    .pageNo(readVarLong(in))
+                    .total(readVarLong(in))
+                    .build();
+        }
+        int columnCount = (int) readVarLong(in);
+        int rowCount = (int) readVarLong(in);
+        List<Column> columns = new ArrayList<>(columnCount);
+        List<ColumnVector> vectors = new ArrayList<>(columnCount);
+        ValueType[] valueTypes = ValueType.values();
+        for (int i = 0; i < columnCount; i++) {
+            String columnName = readString(in);
+            byte type = in.readByte();
+            columns.add(new Column(columnName, type < 0 ? null : valueTypes[type]));
+            vectors.add(readVector(in, rowCount));
+        }
+        ColumnarDataframe dataframe = new ColumnarDataframe(columns, vectors);
+        dataframe.setName(name);
+        dataframe.setVizType(vizType);
+        dataframe.setVizId(vizId);
+        dataframe.setScript(script);
+        dataframe.setPageInfo(pageInfo);
+        return dataframe;
+    }
+
+    private static void writeVector(DataOutputStream out, ColumnVector vector, int rowCount) throws IOException {
+        if (vector instanceof LongColumnVector) {
+            out.writeByte(VECTOR_LONG);
+            writeNulls(out, vector);
+            LongColumnVector longs = (LongColumnVector) vector;
+            for (int i = 0; i < rowCount; i++) {
+                writeVarLong(out, zigzag(longs.getLong(i)));
+            }
+        } else if (vector instanceof DoubleColumnVector) {
+            out.writeByte(VECTOR_DOUBLE);
+            writeNulls(out, vector);
+            DoubleColumnVector doubles = (DoubleColumnVector) vector;
+            for (int i = 0; i < rowCount; i++) {
+                out.writeDouble(doubles.getDouble(i));
+            }
+        } else if (vector instanceof TimestampColumnVector) {
+            out.writeByte(VECTOR_TIMESTAMP);
+            writeNulls(out, vector);
+            TimestampColumnVector timestamps = (TimestampColumnVector) vector;
+            long previous = 0;
+            for (int i = 0; i < rowCount; i++) {
+                long millis = timestamps.getMillis(i);
+                writeVarLong(out, zigzag(millis - previous));
+                previous = millis;
+            }
+        } else if (vector instanceof StringColumnVector) {
+            out.writeByte(VECTOR_STRING);
+            writeNulls(out, vector);
+            StringColumnVector strings = (StringColumnVector) vector;
+            List<String> dictionary = strings.getDictionary();
+            writeVarLong(out, dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+            for (int i = 0; i < rowCount; i++) {
+                writeVarLong(out, strings.getCode(i));
+            }
+        } else {
+            out.writeByte(VECTOR_OBJECT);
+            writeNulls(out, vector);
+            for (int i = 0; i < rowCount; i++) {
+                writeValue(out, vector.get(i));
+            }
+        }
+    }
+
+    private static ColumnVector readVector(DataInputStream in, int rowCount) throws IOException {
+        byte type = in.readByte();
+        BitSet nulls = readNulls(in);
+        switch (type) {
+            case VECTOR_LONG: {
+                long[] values = new long[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = unzigzag(readVarLong(in));
+                }
+                return new LongColumnVector(values, rowCount, nulls);
+            }
+            case VECTOR_DOUBLE: {
+                double[] values = new double[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = in.readDouble();
+                }
+                return new DoubleColumnVector(values, rowCount, nulls);
+            }
+            case VECTOR_TIMESTAMP: {
+                long[] values = new long[rowCount];
+                long previous = 0;
+                for (int i = 0; i < rowCount; i++) {
+                    previous += unzigzag(readVarLong(in));
+                    values[i] = previous;
+                }
+                return new TimestampColumnVector(values, rowCount, nulls);
+            }
+            case VECTOR_STRING: {
+                int size = (int) readVarLong(in);
+                List<String> dictionary = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    dictionary.add(readString(in));
+                }
+                int[] codes = new int[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    codes[i] = (int) readVarLong(in);
+                }
+                return new StringColumnVector(codes, dictionary, rowCount, nulls);
+            }
+            case VECTOR_OBJECT: {
+                Object[] values = new Object[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = readValue(in);
+                }
+                return new ObjectColumnVector(values, rowCount, nulls);
+            }
+            default:
+                throw new IOException("Unknown vector type " + type);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(VALUE_LONG);
+            writeVarLong(out, zigzag(((Number) value).longValue()));
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(VALUE_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(VALUE_BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(VALUE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(VALUE_SQL_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(VALUE_TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value instanceof java.util.Date) {
+            out.writeByte(VALUE_DATE);
+            out.writeLong(((java.util.Date) value).getTime());
+        } else if (value instanceof LocalDateTime) {
+            out.writeByte(VALUE_LOCAL_DATE_TIME);
+            writeString(out, value.toString());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(VALUE_LOCAL_DATE);
+            writeString(out, value.toString());
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(VALUE_BYTES);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        } else {
+            throw new UnsupportedValueException(value.getClass());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return readString(in);
+            case VALUE_LONG:
+                return unzigzag(readVarLong(in));
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_BOOLEAN:
+                return in.readBoolean();
+            case VALUE_DECIMAL:
+                return new BigDecimal(readString(in));
+            case VALUE_BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case VALUE_FLOAT:
+                return in.readFloat();
+            case VALUE_TIMESTAMP:
+                return new Timestamp(in.readLong());
+            case VALUE_SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case VALUE_DATE:
+                return new java.util.Date(in.readLong());
+            case VALUE_TIME:
+                return new Time(in.readLong());
+            case VALUE_BYTES:
+                byte[] bytes = new byte[(int) readVarLong(in)];
+                in.readFully(bytes);
+                return bytes;
+            case VALUE_LOCAL_DATE_TIME:
+                return LocalDateTime.parse(readString(in));
+            case VALUE_LOCAL_DATE:
+                return LocalDate.parse(readString(in));
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    private static void writeNulls(DataOutputStream out, ColumnVector vector) throws IOException {
+        long[] words = vector.nulls.toLongArray();
+        writeVarLong(out, words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private static BitSet readNulls(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) {
+            words[i] = in.readLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (shift < 64) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
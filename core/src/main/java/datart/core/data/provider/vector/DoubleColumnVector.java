@@ -0,0 +1,86 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider.vector;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class DoubleColumnVector extends ColumnVector {
+
+    private double[] values;
+
+    public DoubleColumnVector(int capacity) {
+        this.values = new double[capacity];
+    }
+
+    DoubleColumnVector(double[] values, int size, BitSet nulls) {
+        super(size, nulls);
+        this.values = values;
+    }
+
+    /**
+     * 只接受Double，其它数值类型（BigDecimal、Float、整数）保存为对象以保持原值
+     * <p>
+     * Only doubles are accepted. Other numbers (BigDecimal, Float, integers) widen the column to an object vector so
+     * that their exact values are kept.
+     */
+    @Override
+    public boolean accept(Object value) {
+        return value instanceof Double;
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    public void appendDouble(double value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    @Override
+    public long estimatedSize() {
+        return OBJECT_OVERHEAD + values.length * 8L + nullsSize();
+    }
+
+    @Override
+    public void trim() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    @Override
+    protected void appendValue(Object value) {
+        values[size] = ((Number) value).doubleValue();
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (values.length < capacity) {
+            values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider.vector;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class LongColumnVector extends ColumnVector {
+
+    private long[] values;
+
+    public LongColumnVector(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    LongColumnVector(long[] values, int size, BitSet nulls) {
+        super(size, nulls);
+        this.values = values;
+    }
+
+    @Override
+    public boolean accept(Object value) {
+        return value instanceof Long
+                || value instanceof Integer
+                || value instanceof Short
+                || value instanceof Byte;
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    public long getLong(int row) {
+        return values[row];
+    }
+
+    /**
+     * 只有在列中还没有非空值时才转换为double列，否则转换为对象列，保证已有的整数和新的值（如BigDecimal）都不丢失精度
+     * <p>
+     * Switch to a double vector only while the column holds no values yet. Otherwise fall back to an object vector so
+     * that neither the existing integers nor the new value (e.g. a BigDecimal) lose precision.
+     */
+    @Override
+    public ColumnVector widen(Object value) {
+        if (!(value instanceof Double) || nulls.cardinality() < size) {
+            return super.widen(value);
+        }
+        DoubleColumnVector vector = new DoubleColumnVector(Math.max(size, DEFAULT_CAPACITY));
+        for (int i = 0; i < size; i++) {
+            vector.appendNull();
+        }
+        return vector;
+    }
+
+    public void appendLong(long value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    @Override
+    public long estimatedSize() {
+        return OBJECT_OVERHEAD + values.length * 8L + nullsSize();
+    }
+
+    @Override
+    public void trim() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    @Override
+    protected void appendValue(Object value) {
+        values[size] = ((Number) value).longValue();
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (values.length < capacity) {
+            values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+        }
+    }
+
+}
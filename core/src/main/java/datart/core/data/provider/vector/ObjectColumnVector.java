@@ -0,0 +1,110 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider.vector;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ObjectColumnVector extends ColumnVector {
+
+    private Object[] values;
+
+    /**
+     * 字符串值驻留表，相同的字符串共享同一个实例
+     */
+    private transient Map<String, String> strings;
+
+    private long objectsSize;
+
+    public ObjectColumnVector(int capacity) {
+        this.values = new Object[capacity];
+    }
+
+    ObjectColumnVector(Object[] values, int size, BitSet nulls) {
+        super(size, nulls);
+        this.values = values;
+        for (int i = 0; i < size; i++) {
+            objectsSize += estimateObject(values[i]);
+        }
+    }
+
+    @Override
+    public boolean accept(Object value) {
+        return true;
+    }
+
+    @Override
+    public Object get(int row) {
+        return values[row];
+    }
+
+    @Override
+    public void trim() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    @Override
+    protected void appendValue(Object value) {
+        if (value instanceof String) {
+            values[size] = intern((String) value);
+        } else {
+            values[size] = value;
+            objectsSize += estimateObject(value);
+        }
+    }
+
+    @Override
+    public long estimatedSize() {
+        return OBJECT_OVERHEAD + values.length * 8L + objectsSize + nullsSize();
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (values.length < capacity) {
+            values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+        }
+    }
+
+    private String intern(String value) {
+        if (strings == null) {
+            strings = new HashMap<>();
+        }
+        String shared = strings.putIfAbsent(value, value);
+        if (shared != null) {
+            return shared;
+        }
+        objectsSize += estimateString(value);
+        return value;
+    }
+
+    private static long estimateObject(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return estimateString((String) value);
+        }
+        return OBJECT_OVERHEAD * 2;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字典编码的字符串列，相同的字符串只保存一份，每行只记录字典下标。
+ * <p>
+ * Dictionary encoded string column. Each distinct string is stored once and rows only keep its code.
+ */
+public class StringColumnVector extends ColumnVector {
+
+    private int[] codes;
+
+    private final List<String> dictionary;
+
+    private long dictionarySize;
+
+    private transient Map<String, Integer> index;
+
+    public StringColumnVector(int capacity) {
+        this.codes = new int[capacity];
+        this.dictionary = new ArrayList<>();
+    }
+
+    StringColumnVector(int[] codes, List<String> dictionary, int size, BitSet nulls) {
+        super(size, nulls);
+        this.codes = codes;
+        this.dictionary = dictionary;
+        for (String value : dictionary) {
+            dictionarySize += estimateString(value);
+        }
+    }
+
+    @Override
+    public boolean accept(Object value) {
+        return value instanceof String;
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : dictionary.get(codes[row]);
+    }
+
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    public List<String> getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public int cardinality() {
+        return dictionary.size();
+    }
+
+    @Override
+    public long estimatedSize() {
+        return OBJECT_OVERHEAD + codes.length * 4L + dictionary.size() * 8L + dictionarySize + nullsSize();
+    }
+
+    @Override
+    public void trim() {
+        if (codes.length > size) {
+            codes = Arrays.copyOf(codes, size);
+        }
+    }
+
+    @Override
+    protected void appendValue(Object value) {
+        codes[size] = encode((String) value);
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (codes.length < capacity) {
+            codes = Arrays.copyOf(codes, newCapacity(codes.length, capacity));
+        }
+    }
+
+    private int encode(String value) {
+        if (index == null) {
+            index = new HashMap<>();
+            for (int i = 0; i < dictionary.size(); i++) {
+                index.put(dictionary.get(i), i);
+            }
+        }
+        Integer code = index.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            dictionarySize += estimateString(value);
+            index.put(value, code);
+        }
+        return code;
+    }
+
+}
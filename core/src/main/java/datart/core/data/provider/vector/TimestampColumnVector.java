@@ -0,0 +1,86 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.core.data.provider.vector;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 以毫秒时间戳保存日期列，读取时还原为 {@link Timestamp}，毫秒以下的精度会被丢弃。
+ * <p>
+ * Stores a date column as epoch milliseconds and restores {@link Timestamp}s on read. Sub-millisecond precision is dropped.
+ */
+public class TimestampColumnVector extends ColumnVector {
+
+    private long[] values;
+
+    public TimestampColumnVector(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    TimestampColumnVector(long[] values, int size, BitSet nulls) {
+        super(size, nulls);
+        this.values = values;
+    }
+
+    @Override
+    public boolean accept(Object value) {
+        return value instanceof Timestamp;
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : new Timestamp(values[row]);
+    }
+
+    public long getMillis(int row) {
+        return values[row];
+    }
+
+    public void appendMillis(long millis) {
+        ensureCapacity(size + 1);
+        values[size++] = millis;
+    }
+
+    @Override
+    public long estimatedSize() {
+        return OBJECT_OVERHEAD + values.length * 8L + nullsSize();
+    }
+
+    @Override
+    public void trim() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    @Override
+    protected void appendValue(Object value) {
+        values[size] = ((Timestamp) value).getTime();
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (values.length < capacity) {
+            values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import datart.core.data.provider.Column;
 import datart.core.data.provider.DataProviderSource;
 import datart.core.data.provider.Dataframe;
 import datart.data.provider.base.DataProviderException;
+import datart.data.provider.base.SchemaLoadExecutor;
 import datart.data.provider.jdbc.DataTypeUtils;
 import org.springframework.util.CollectionUtils;
 
@@ -56,30 +57,31 @@ public class FileDataProvider extends DefaultDataProvider {
             } else {
                 schemas = Collections.singletonList(properties);
             }
-            LinkedList<Dataframe> dataframes = new LinkedList<>();
-            for (Map<String, Object> schema : schemas) {
-                String path = schema.get(FILE_PATH).toString();
-                FileFormat fileFormat = FileFormat.valueOf(schema.get(FILE_FORMAT).toString().toUpperCase());
-
-                List<Map<String, String>> columnConfig = (List<Map<String, String>>) schema.get(COLUMNS);
-                List<Column> columns = null;
-                if (!CollectionUtils.isEmpty(columnConfig)) {
-                    columns = columnConfig
-                            .stream()
-                            .map(c -> new Column(c.get(COLUMN_NAME), ValueType.valueOf(c.get(COLUMN_TYPE))))
-                            .collect(Collectors.toList());
-                }
-                Dataframe dataframe = loadFromPath(FileUtils.withBasePath(path), fileFormat, columns);
-                dataframe.setName(schema.containsKey(TABLE) ? schema.get(TABLE).toString() : "TEST" + UUIDGenerator.generate());
-                dataframes.add(dataframe);
-            }
-            return dataframes;
-
+            return SchemaLoadExecutor.loadAll(schemas, schema -> String.valueOf(schema.getOrDefault(TABLE, schema.get(FILE_PATH))), this::loadSchema);
+        } catch (DataProviderException e) {
+            throw e;
         } catch (Exception e) {
             throw new DataProviderException(e);
         }
     }
 
+    private Dataframe loadSchema(Map<String, Object> schema) throws IOException {
+        String path = schema.get(FILE_PATH).toString();
+        FileFormat fileFormat = FileFormat.valueOf(schema.get(FILE_FORMAT).toString().toUpperCase());
+
+        List<Map<String, String>> columnConfig = (List<Map<String, String>>) schema.get(COLUMNS);
+        List<Column> columns = null;
+        if (!CollectionUtils.isEmpty(columnConfig)) {
+            columns = columnConfig
+                    .stream()
+                    .map(c -> new Column(c.get(COLUMN_NAME), ValueType.valueOf(c.get(COLUMN_TYPE))))
+                    .collect(Collectors.toList());
+        }
+        Dataframe dataframe = loadFromPath(FileUtils.withBasePath(path), fileFormat, columns);
+        dataframe.setName(schema.containsKey(TABLE) ? schema.get(TABLE).toString() : "TEST" + UUIDGenerator.generate());
+        return dataframe;
+    }
+
     private Dataframe loadFromPath(String path, FileFormat format, List<Column> columns) throws IOException {
 
         File file = new File(path);
@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import datart.core.data.provider.DataProviderSource;
 import datart.core.data.provider.Dataframe;
+import datart.data.provider.base.SchemaLoadExecutor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpMethod;
 import org.springframework.util.CollectionUtils;
@@ -29,7 +30,6 @@ import org.springframework.util.CollectionUtils;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -76,7 +76,6 @@ public class HttpDataProvider extends DefaultDataProvider {
     @Override
     public List<Dataframe> loadFullDataFromSource(DataProviderSource config) throws IOException, ClassNotFoundException, URISyntaxException {
 
-        LinkedList<Dataframe> dataframes = new LinkedList<>();
         List<Map<String, Object>> schemas;
         if (config.getProperties().containsKey(SCHEMAS)) {
             schemas = (List<Map<String, Object>>) config.getProperties().get(SCHEMAS);
@@ -86,14 +85,14 @@ public class HttpDataProvider extends DefaultDataProvider {
         if (CollectionUtils.isEmpty(schemas)) {
             return Collections.emptyList();
         }
-        for (Map<String, Object> schema : schemas) {
-            HttpRequestParam httpRequestParam = convert2RequestParam(schema);
-            Dataframe dataframe = new HttpDataFetcher(httpRequestParam).fetchData();
-            dataframe.setName(schema.get(TABLE).toString());
-            dataframes.add(dataframe);
-        }
+        return SchemaLoadExecutor.loadAll(schemas, schema -> String.valueOf(schema.get(TABLE)), this::loadSchema);
+    }
 
-        return dataframes;
+    private Dataframe loadSchema(Map<String, Object> schema) throws IOException, ClassNotFoundException, URISyntaxException {
+        HttpRequestParam httpRequestParam = convert2RequestParam(schema);
+        Dataframe dataframe = new HttpDataFetcher(httpRequestParam).fetchData();
+        dataframe.setName(schema.get(TABLE).toString());
+        return dataframe;
     }
 
 
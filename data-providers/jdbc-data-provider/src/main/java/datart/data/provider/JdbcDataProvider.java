@@ -8,22 +8,28 @@ import datart.core.data.provider.*;
 import datart.data.provider.base.DataProviderException;
 import datart.data.provider.base.JdbcDriverInfo;
 import datart.data.provider.base.JdbcProperties;
+import datart.data.provider.base.MemoryBudget;
+import datart.data.provider.base.ProviderConfig;
 import datart.data.provider.calcite.SqlParserUtils;
 import datart.data.provider.calcite.dialect.SqlStdOperatorSupport;
 import datart.data.provider.jdbc.DataSourceFactory;
 import datart.data.provider.jdbc.DataSourceFactoryDruidImpl;
+import datart.data.provider.jdbc.JdbcPoolManager;
+import datart.data.provider.jdbc.MetadataCache;
+import datart.data.provider.jdbc.PreparedSql;
 import datart.data.provider.jdbc.SqlScriptRender;
 import datart.data.provider.jdbc.adapters.JdbcDataProviderAdapter;
 import datart.data.provider.local.LocalDB;
+import datart.data.provider.local.LocalStore;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.sql.SqlDialect;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.yaml.snakeyaml.Yaml;
 
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
-import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
@@ -47,12 +53,28 @@ public class JdbcDataProvider extends DataProvider {
 
     public static final String DRIVER_CLASS = "driverClass";
 
+    public static final String FETCH_SIZE = "fetchSize";
+
+    public static final String QUERY_TIMEOUT = "queryTimeout";
+
+    public static final String CONNECTION_PROPERTIES = "properties";
+
+    public static final String BIND_VARIABLES = "bindVariables";
+
+    public static final String PARTITION_COLUMN = "partitionColumn";
+
+    public static final String PARTITION_COUNT = "partitionCount";
+
+    public static final String PARTITION_PARALLELISM = "partitionParallelism";
+
     /**
      * 获取连接时最大等待时间（毫秒）
      */
     public static final Integer DEFAULT_MAX_WAIT = 5000;
 
-    private final Map<String, JdbcDataProviderAdapter> cachedProviders = new ConcurrentSkipListMap<>();
+    private final JdbcPoolManager poolManager = new JdbcPoolManager();
+
+    private final MetadataCache metadataCache = new MetadataCache();
 
     @Override
     public Object test(DataProviderSource source) {
@@ -62,39 +84,27 @@ public class JdbcDataProvider extends DataProvider {
 
     @Override
     public Set<String> readAllDatabases(DataProviderSource source) {
-        try {
-            JdbcDataProviderAdapter adapter = matchProviderAdapter(source);
-            return adapter.readAllDatabases();
-        } catch (SQLException e) {
-            throw new DataProviderException(e);
-        }
+        return metadataCache.get(source.getSourceId(), "databases",
+                () -> matchProviderAdapter(source).readAllDatabases());
     }
 
     @Override
     public Set<String> readTables(DataProviderSource source, String database) {
-        try {
-            JdbcDataProviderAdapter adapter = matchProviderAdapter(source);
-            return adapter.readAllTables(database);
-        } catch (SQLException e) {
-            throw new DataProviderException(e);
-        }
+        return metadataCache.get(source.getSourceId(), "tables:" + database,
+                () -> matchProviderAdapter(source).readAllTables(database));
     }
 
     @Override
     public Set<Column> readTableColumns(DataProviderSource source, String database, String table) {
-        try {
-            JdbcDataProviderAdapter adapter = matchProviderAdapter(source);
-            return adapter.readTableColumn(database, table);
-        } catch (SQLException e) {
-            throw new DataProviderException(e);
-        }
+        return metadataCache.get(source.getSourceId(), "columns:" + database + "." + table,
+                () -> matchProviderAdapter(source).readTableColumn(database, table));
     }
 
     @Override
     public Dataframe execute(DataProviderSource source, QueryScript script, ExecuteParam executeParam) throws Exception {
 
         Dataframe dataframe;
-        String sql;
+        PreparedSql sql;
 
         JdbcDataProviderAdapter adapter = matchProviderAdapter(source);
 
@@ -103,21 +113,63 @@ public class JdbcDataProvider extends DataProvider {
                 , adapter.getSqlDialect()
                 , adapter.getVariableQuote());
 
-        //如果开启了本地聚合，先查询全量view数据，再进行本地聚合
+        boolean bind = isBindVariables(source);
+
+        //如果开启了本地聚合，先查询view中需要的行和列，再进行本地聚合
         if (executeParam.isServerAggregate()) {
-            sql = render.render(false);
-            Dataframe data = adapter.execute(sql);
-            data.setName(script.toQueryKey());
-            return LocalDB.queryFromLocal(data.getName(), executeParam, executeParam.isCacheEnable(), Collections.singletonList(data));
+            Set<String> required = requiredColumns(source);
+            sql = bind ? render.renderPreparedPushdown(required) : PreparedSql.of(render.renderPushdown(required));
+            String tableName = localTableName(script, sql);
+            if (executeParam.isCacheEnable()) {
+                dataframe = LocalDB.queryFromLocal(tableName, executeParam);
+                if (dataframe != null) {
+                    return dataframe;
+                }
+            }
+            Dataframe data = extract(adapter, sql, source);
+            data.setName(tableName);
+            // 抽取的数据在本地聚合完成前一直占用内存预算
+            try (MemoryBudget budget = MemoryBudget.open()) {
+                budget.update(MemoryBudget.estimate(data));
+                return LocalDB.queryFromLocal(tableName, source.getSourceId(), executeParam, executeParam.isCacheEnable(), Collections.singletonList(data));
+            }
         }
 
         //没有开启本地聚合，将SQL提交至数据源执行
-        sql = render.render(true);
-        dataframe = adapter.execute(sql, executeParam.getPageInfo());
-        dataframe.setScript(sql);
+        if (adapter.supportPaging()) {
+            sql = bind ? render.renderPreparedWithPage() : PreparedSql.of(render.renderWithPage());
+            PreparedSql countSql = bind ? render.renderPreparedCount() : PreparedSql.of(render.renderCount());
+            dataframe = adapter.executeOnPage(sql, countSql, executeParam.getPageInfo());
+        } else {
+            sql = bind ? render.renderPrepared(true) : PreparedSql.of(render.render(true));
+            dataframe = adapter.execute(sql, executeParam.getPageInfo(), executeParam.isCacheEnable());
+        }
+        dataframe.setScript(sql.toScript());
         return dataframe;
     }
 
+    @Override
+    public DataCursor executeStreaming(DataProviderSource source, QueryScript script, ExecuteParam executeParam) throws Exception {
+
+        JdbcDataProviderAdapter adapter = matchProviderAdapter(source);
+
+        SqlScriptRender render = new SqlScriptRender(script
+                , executeParam
+                , adapter.getSqlDialect()
+                , adapter.getVariableQuote());
+
+        boolean bind = isBindVariables(source);
+
+        if (executeParam.isServerAggregate()) {
+            Set<String> required = requiredColumns(source);
+            PreparedSql sql = bind ? render.renderPreparedPushdown(required) : PreparedSql.of(render.renderPushdown(required));
+            // 抽取结果不在内存中汇总，直接分批写入本地数据库后再聚合
+            return LocalDB.queryFromLocalStreaming(localTableName(script, sql), executeParam, adapter.executeStreaming(sql));
+        }
+
+        return adapter.executeStreaming(bind ? render.renderPrepared(true) : PreparedSql.of(render.render(true)));
+    }
+
     @Override
     public String getType() {
         try {
@@ -133,6 +185,50 @@ public class JdbcDataProvider extends DataProvider {
         return null;
     }
 
+    /**
+     * 本地聚合模式下抽取视图的全量数据。数据源配置了分区列时，按分区列的取值范围拆分为多段并发抽取，
+     * 并发数不超过连接池的最大连接数。
+     * <p>
+     * Extract the full view data for server side aggregation. If the source has a partition column, the query is
+     * split into ranges of that column which are fetched concurrently, at most max-active at a time.
+     */
+    private Dataframe extract(JdbcDataProviderAdapter adapter, PreparedSql sql, DataProviderSource source) throws Exception {
+        Object column = source.getProperties().get(PARTITION_COLUMN);
+        int partitions = ProviderConfig.parseInt(PARTITION_COUNT, source.getProperties().get(PARTITION_COUNT), 0);
+        if (column == null || StringUtils.isBlank(column.toString()) || partitions <= 1) {
+            return adapter.execute(sql);
+        }
+        int parallelism = ProviderConfig.parseInt(PARTITION_PARALLELISM, source.getProperties().get(PARTITION_PARALLELISM), partitions);
+        parallelism = Math.min(parallelism, JdbcPoolManager.getMaxActive(adapter.getJdbcProperties()));
+        return adapter.executePartitioned(sql, column.toString().trim(), partitions, parallelism);
+    }
+
+    /**
+     * 下推查询参数时必须保留的列，分区抽取依赖分区列
+     */
+    private static Set<String> requiredColumns(DataProviderSource source) {
+        Object column = source.getProperties().get(PARTITION_COLUMN);
+        if (column == null || StringUtils.isBlank(column.toString())) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(column.toString().trim());
+    }
+
+    /**
+     * 下推后抽取的数据与查询参数相关，本地表名需要同时包含视图和下推后的SQL
+     */
+    private static String localTableName(QueryScript script, PreparedSql sql) {
+        return 'Q' + DigestUtils.md5Hex(script.toQueryKey() + sql.getSql() + sql.getParams());
+    }
+
+    /**
+     * 是否以绑定变量的方式执行查询
+     */
+    public static boolean isBindVariables(DataProviderSource source) {
+        Object bind = source.getProperties().get(BIND_VARIABLES);
+        return bind != null && Boolean.parseBoolean(bind.toString());
+    }
+
     private JdbcProperties conv2JdbcProperties(DataProviderSource config) {
         JdbcProperties jdbcProperties = new JdbcProperties();
         jdbcProperties.setDbType(config.getProperties().get(DB_TYPE).toString().toUpperCase());
@@ -146,18 +242,45 @@ public class JdbcDataProvider extends DataProvider {
         Properties properties = new Properties();
         properties.putAll(config.getProperties());
         jdbcProperties.setProperties(properties);
+
+        // connection params: defaults of the database type, overridden by the source
+        Map<String, String> connectionProperties = new LinkedHashMap<>();
+        JdbcDriverInfo driverInfo = ProviderFactory.getJdbcDriverInfo(jdbcProperties.getDbType());
+        if (driverInfo != null && driverInfo.getConnectionProperties() != null) {
+            connectionProperties.putAll(driverInfo.getConnectionProperties());
+        }
+        Object sourceConnectionProperties = config.getProperties().get(CONNECTION_PROPERTIES);
+        if (sourceConnectionProperties instanceof Map) {
+            ((Map<?, ?>) sourceConnectionProperties).forEach((k, v) -> {
+                if (k != null && v != null) {
+                    connectionProperties.put(k.toString(), v.toString());
+                }
+            });
+        }
+        jdbcProperties.setConnectionProperties(connectionProperties);
         return jdbcProperties;
     }
 
     private JdbcDataProviderAdapter matchProviderAdapter(DataProviderSource source) {
-        JdbcDataProviderAdapter adapter;
-        adapter = cachedProviders.get(source.getSourceId());
-        if (adapter != null) {
-            return adapter;
-        }
-        adapter = ProviderFactory.createDataProvider(conv2JdbcProperties(source), true);
-        cachedProviders.put(source.getSourceId(), adapter);
-        return adapter;
+        return poolManager.getAdapter(source.getSourceId(), conv2JdbcProperties(source),
+                prop -> ProviderFactory.createDataProvider(prop, true));
+    }
+
+    @Override
+    public void resetSource(DataProviderSource source) {
+        poolManager.release(source.getSourceId());
+        metadataCache.invalidate(source.getSourceId());
+        LocalStore.invalidate(source.getSourceId());
+    }
+
+    @Override
+    public void refreshMetadata(DataProviderSource source) {
+        metadataCache.invalidate(source.getSourceId());
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics(DataProviderSource source) {
+        return poolManager.getStatistics(source.getSourceId());
     }
 
     @Override
@@ -202,7 +325,8 @@ public class JdbcDataProvider extends DataProvider {
 
     @Override
     public void close() throws IOException {
-
+        poolManager.close();
+        metadataCache.close();
     }
 
     public static DataSourceFactory<? extends DataSource> getDataSourceFactory() {
@@ -20,6 +20,8 @@ package datart.data.provider.base;
 
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
 public class JdbcDriverInfo {
 
@@ -39,4 +41,24 @@ public class JdbcDriverInfo {
 
     private String urlPrefix;
 
+    /**
+     * 查询时 Statement 的 fetchSize，为空时使用驱动默认值
+     */
+    private Integer fetchSize;
+
+    /**
+     * 查询时是否保持自动提交。PostgreSQL 等数据库只有在关闭自动提交时才会使用服务端游标分批读取
+     */
+    private Boolean fetchAutoCommit;
+
+    /**
+     * 是否由数据库完成分页（生成 LIMIT/OFFSET 或 OFFSET/FETCH 子句），为空时使用JDBC分页
+     */
+    private Boolean dbPaging;
+
+    /**
+     * 默认的连接参数，如 MySQL 的 useCursorFetch
+     */
+    private Map<String, String> connectionProperties;
+
 }
@@ -20,6 +20,7 @@ package datart.data.provider.base;
 
 import lombok.Data;
 
+import java.util.Map;
 import java.util.Properties;
 
 @Data
@@ -37,6 +38,8 @@ public class JdbcProperties {
 
     private Properties properties;
 
+    private Map<String, String> connectionProperties;
+
     @Override
     public String toString() {
         return "JdbcConnectionProperties{" +
@@ -1,5 +1,6 @@
 package datart.data.provider.jdbc;
 
+import datart.core.data.provider.PoolStatistics;
 import datart.data.provider.base.JdbcProperties;
 
 import javax.sql.DataSource;
@@ -10,4 +11,9 @@ public interface DataSourceFactory<T extends DataSource> {
 
     void destroy(DataSource dataSource);
 
+    /**
+     * 连接池的使用和等待统计，sourceId及时间字段由调用方填充
+     */
+    PoolStatistics getStatistics(DataSource dataSource);
+
 }
@@ -20,16 +20,20 @@ package datart.data.provider.jdbc;
 
 import com.alibaba.druid.pool.DruidDataSource;
 import com.alibaba.druid.pool.DruidDataSourceFactory;
+import datart.core.data.provider.PoolStatistics;
 import datart.data.provider.JdbcDataProvider;
 import datart.data.provider.base.JdbcProperties;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.sql.DataSource;
 import java.util.Properties;
+import java.util.StringJoiner;
 
 @Slf4j
 public class DataSourceFactoryDruidImpl implements DataSourceFactory<DruidDataSource> {
 
+    private static final String MAX_OPEN_PREPARED_STATEMENTS = "100";
+
     @Override
     public DruidDataSource createDataSource(JdbcProperties jdbcProperties) throws Exception {
         Properties properties = configDataSource(jdbcProperties);
@@ -44,6 +48,21 @@ public class DataSourceFactoryDruidImpl implements DataSourceFactory<DruidDataSo
         ((DruidDataSource) dataSource).close();
     }
 
+    @Override
+    public PoolStatistics getStatistics(DataSource dataSource) {
+        DruidDataSource druidDataSource = (DruidDataSource) dataSource;
+        PoolStatistics statistics = new PoolStatistics();
+        statistics.setMaxActive(druidDataSource.getMaxActive());
+        statistics.setActiveCount(druidDataSource.getActiveCount());
+        statistics.setIdleCount(druidDataSource.getPoolingCount());
+        statistics.setActivePeak(druidDataSource.getActivePeak());
+        statistics.setWaitThreadCount(druidDataSource.getWaitThreadCount());
+        statistics.setWaitCount(druidDataSource.getNotEmptyWaitCount());
+        statistics.setWaitMillis(druidDataSource.getNotEmptyWaitMillis());
+        statistics.setConnectCount(druidDataSource.getConnectCount());
+        return statistics;
+    }
+
     private Properties configDataSource(JdbcProperties properties) {
         Properties pro = new Properties();
 
@@ -57,7 +76,12 @@ public class DataSourceFactoryDruidImpl implements DataSourceFactory<DruidDataSo
         pro.setProperty(DruidDataSourceFactory.PROP_MAXWAIT, JdbcDataProvider.DEFAULT_MAX_WAIT.toString());
 
         // url properties
-        pro.setProperty(DruidDataSourceFactory.PROP_CONNECTIONPROPERTIES, "useUnicode=true;characterEncoding=utf8;characterSetResults=utf8");
+        StringJoiner connectionProperties = new StringJoiner(";");
+        connectionProperties.add("useUnicode=true;characterEncoding=utf8;characterSetResults=utf8");
+        if (properties.getConnectionProperties() != null) {
+            properties.getConnectionProperties().forEach((k, v) -> connectionProperties.add(k + "=" + v));
+        }
+        pro.setProperty(DruidDataSourceFactory.PROP_CONNECTIONPROPERTIES, connectionProperties.toString());
 
         // wall config
         pro.setProperty(com.alibaba.druid.pool.DruidDataSourceFactory.PROP_DEFAULTREADONLY, "true");
@@ -67,8 +91,18 @@ public class DataSourceFactoryDruidImpl implements DataSourceFactory<DruidDataSo
         pro.setProperty("druid.wall.multiStatementAllow", "true");
         pro.setProperty("druid.failFast", "true");
 
+        // cache prepared statements per connection when queries run with bind variables
+        Object bindVariables = properties.getProperties().get(JdbcDataProvider.BIND_VARIABLES);
+        if (bindVariables != null && Boolean.parseBoolean(bindVariables.toString())) {
+            pro.setProperty(DruidDataSourceFactory.PROP_POOLPREPAREDSTATEMENTS, "true");
+            pro.setProperty(DruidDataSourceFactory.PROP_MAXOPENPREPAREDSTATEMENTS, MAX_OPEN_PREPARED_STATEMENTS);
+        }
+
         //opt config
         pro.putAll(properties.getProperties());
+
+        // max active, configured per source and capped by the global limit
+        pro.setProperty(DruidDataSourceFactory.PROP_MAXACTIVE, String.valueOf(JdbcPoolManager.getMaxActive(properties)));
         return pro;
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.jdbc;
+
+import datart.core.data.provider.PoolStatistics;
+import datart.data.provider.JdbcDataProvider;
+import datart.data.provider.base.ConnectionGovernor;
+import datart.data.provider.base.JdbcProperties;
+import datart.data.provider.base.ProviderConfig;
+import datart.data.provider.jdbc.adapters.JdbcDataProviderAdapter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 管理每个数据源的连接池：数据源配置变化时重建连接池，长时间未使用且没有活动连接的连接池会被关闭。
+ * 单个数据源的最大连接数由数据源配置 maxActive 指定，不超过全局配置 datart.data-provider.jdbc.pool.max-active。
+ * <p>
+ * Manages the connection pool of each source. A pool is rebuilt when the config of its source changes, and closed
+ * after it has been idle for datart.data-provider.jdbc.pool.idle-timeout-minutes without active connections.
+ * The max active connections of a source come from its maxActive property, capped by the global limit.
+ */
+@Slf4j
+public class JdbcPoolManager implements Closeable {
+
+    public static final String IDLE_TIMEOUT_KEY = "datart.data-provider.jdbc.pool.idle-timeout-minutes";
+
+    public static final String MAX_ACTIVE_KEY = "datart.data-provider.jdbc.pool.max-active";
+
+    public static final String MAX_ACTIVE = "maxActive";
+
+    private static final int DEFAULT_IDLE_TIMEOUT_MINUTES = 30;
+
+    private static final int DEFAULT_MAX_ACTIVE = 8;
+
+    private static final int DEFAULT_MAX_ACTIVE_LIMIT = 50;
+
+    private static final long EVICT_INTERVAL_SECONDS = 60;
+
+    private final Map<String, PooledAdapter> pools = new ConcurrentHashMap<>();
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService evictor;
+
+    /**
+     * 获取数据源的适配器，连接池不存在或配置已变化时重新创建
+     */
+    public JdbcDataProviderAdapter getAdapter(String sourceId, JdbcProperties jdbcProperties,
+                                              Function<JdbcProperties, JdbcDataProviderAdapter> creator) {
+        PooledAdapter pooled;
+        PooledAdapter replaced = null;
+        // 在数据源的锁内取出连接池并更新访问时间，空闲回收同样在锁内检查访问时间，不会关闭刚取出的连接池
+        synchronized (lockOf(sourceId)) {
+            pooled = pools.get(sourceId);
+            if (pooled == null || !pooled.adapter.getJdbcProperties().equals(jdbcProperties)) {
+                JdbcDataProviderAdapter adapter = creator.apply(jdbcProperties);
+                adapter.setSourceId(sourceId);
+                replaced = pooled;
+                pooled = new PooledAdapter(adapter);
+                pools.put(sourceId, pooled);
+            }
+            pooled.lastAccessTime = System.currentTimeMillis();
+        }
+        if (replaced != null) {
+            log.info("The config of source {} changed, rebuild the connection pool", sourceId);
+            closeQuietly(replaced);
+        }
+        startEvictor();
+        return pooled.adapter;
+    }
+
+    /**
+     * 关闭数据源的连接池，下次使用时按最新配置重新创建
+     */
+    public void release(String sourceId) {
+        PooledAdapter pooled;
+        synchronized (lockOf(sourceId)) {
+            pooled = pools.remove(sourceId);
+        }
+        if (pooled != null) {
+            log.info("The connection pool of source {} released", sourceId);
+            closeQuietly(pooled);
+        }
+    }
+
+    public PoolStatistics getStatistics(String sourceId) {
+        PooledAdapter pooled = pools.get(sourceId);
+        if (pooled == null) {
+            return null;
+        }
+        PoolStatistics statistics = JdbcDataProvider.getDataSourceFactory().getStatistics(pooled.adapter.getDataSource());
+        statistics.setSourceId(sourceId);
+        statistics.setCreateTime(new Date(pooled.createTime));
+        statistics.setLastAccessTime(new Date(pooled.lastAccessTime));
+        statistics.setQueuedCount(ConnectionGovernor.getQueuedCount(sourceId));
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (String sourceId : pools.keySet()) {
+            release(sourceId);
+        }
+    }
+
+    /**
+     * 数据源的最大连接数
+     */
+    public static int getMaxActive(JdbcProperties jdbcProperties) {
+        Object value = jdbcProperties.getProperties() == null ? null : jdbcProperties.getProperties().get(MAX_ACTIVE);
+        int maxActive = ProviderConfig.parseInt(MAX_ACTIVE, value, DEFAULT_MAX_ACTIVE);
+        int limit = ProviderConfig.getInt(MAX_ACTIVE_KEY, DEFAULT_MAX_ACTIVE_LIMIT);
+        if (limit > 0) {
+            maxActive = Math.min(maxActive, limit);
+        }
+        return Math.max(maxActive, 1);
+    }
+
+    private void evictIdle() {
+        long idleTimeout = TimeUnit.MINUTES.toMillis(ProviderConfig.getInt(IDLE_TIMEOUT_KEY, DEFAULT_IDLE_TIMEOUT_MINUTES));
+        if (idleTimeout <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (String sourceId : pools.keySet()) {
+            PooledAdapter pooled;
+            synchronized (lockOf(sourceId)) {
+                pooled = pools.get(sourceId);
+                if (pooled == null || now - pooled.lastAccessTime < idleTimeout || getActiveCount(pooled) > 0) {
+                    continue;
+                }
+                pools.remove(sourceId, pooled);
+            }
+            log.info("The connection pool of source {} has been idle for {} minutes, closed", sourceId,
+                    TimeUnit.MILLISECONDS.toMinutes(now - pooled.lastAccessTime));
+            closeQuietly(pooled);
+        }
+    }
+
+    private void startEvictor() {
+        if (evictor != null) {
+            return;
+        }
+        synchronized (this) {
+            if (evictor == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "jdbc-pool-evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor.scheduleWithFixedDelay(() -> {
+                    try {
+                        evictIdle();
+                    } catch (Exception e) {
+                        log.error("Connection pool eviction error", e);
+                    }
+                }, EVICT_INTERVAL_SECONDS, EVICT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                evictor = executor;
+            }
+        }
+    }
+
+    /**
+     * 每个数据源一个锁，连接池不在 ConcurrentHashMap 的计算函数中创建或关闭，避免阻塞同一个桶中的其他数据源
+     */
+    private Object lockOf(String sourceId) {
+        return locks.computeIfAbsent(sourceId, id -> new Object());
+    }
+
+    private int getActiveCount(PooledAdapter pooled) {
+        try {
+            return JdbcDataProvider.getDataSourceFactory().getStatistics(pooled.adapter.getDataSource()).getActiveCount();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private void closeQuietly(PooledAdapter pooled) {
+        try {
+            pooled.adapter.close();
+        } catch (Exception e) {
+            log.warn("Failed to close connection pool", e);
+        }
+    }
+
+    private static class PooledAdapter {
+
+        private final JdbcDataProviderAdapter adapter;
+
+        private final long createTime;
+
+        private volatile long lastAccessTime;
+
+        private PooledAdapter(JdbcDataProviderAdapter adapter) {
+            this.adapter = adapter;
+            this.createTime = System.currentTimeMillis();
+            this.lastAccessTime = createTime;
+        }
+    }
+
+}
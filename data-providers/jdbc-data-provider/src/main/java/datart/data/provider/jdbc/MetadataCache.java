@@ -0,0 +1,188 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.jdbc;
+
+import datart.data.provider.base.DataProviderException;
+import datart.data.provider.base.ProviderConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 数据源元数据（库、表、列）缓存。缓存过期后先返回旧数据，同时在后台重新加载，浏览表结构时不必等待数据库元数据查询。
+ * 过期时间由 datart.data-provider.metadata.ttl-seconds 配置，小于等于0时不缓存。
+ * <p>
+ * Cache of database, table and column metadata per source. Expired entries are still served while they are
+ * reloaded in the background, so browsing a schema does not wait for the metadata queries of the database.
+ */
+@Slf4j
+public class MetadataCache {
+
+    public static final String TTL_KEY = "datart.data-provider.metadata.ttl-seconds";
+
+    private static final long DEFAULT_TTL_SECONDS = 600;
+
+    private final Map<String, Entries> cache = new ConcurrentHashMap<>();
+
+    private final ExecutorService refresher = createRefresher();
+
+    private volatile Long ttlMillis;
+
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    /**
+     * 获取缓存的元数据。同一个key首次加载时只有一个线程访问数据库，其他线程等待其结果；
+     * 数据源缓存被清除后，正在进行的加载结果不再写入缓存。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String sourceId, String key, Loader<T> loader) {
+        if (getTtlMillis() <= 0) {
+            return load(loader);
+        }
+        Entries entries = cache.computeIfAbsent(sourceId, id -> new Entries());
+        Entry entry = entries.values.get(key);
+        if (entry == null) {
+            return (T) loadOnce(sourceId, entries, key, loader);
+        }
+        if (System.currentTimeMillis() - entry.loadTime > getTtlMillis()
+                && entry.refreshing.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                try {
+                    if (cache.get(sourceId) != entries) {
+                        return;
+                    }
+                    Object value = loader.load();
+                    if (cache.get(sourceId) == entries) {
+                        entries.values.replace(key, entry, new Entry(value));
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to refresh metadata " + key + " of source " + sourceId, e);
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        }
+        return (T) entry.value;
+    }
+
+    /**
+     * 清除数据源的元数据缓存，下次访问时重新加载
+     */
+    public void invalidate(String sourceId) {
+        cache.remove(sourceId);
+    }
+
+    public void close() {
+        refresher.shutdownNow();
+        cache.clear();
+    }
+
+    private Object loadOnce(String sourceId, Entries entries, String key, Loader<?> loader) {
+        FutureTask<Object> task = new FutureTask<>(loader::load);
+        FutureTask<Object> running = entries.loading.putIfAbsent(key, task);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            task.run();
+            Object value = await(task);
+            if (cache.get(sourceId) == entries) {
+                entries.values.put(key, new Entry(value));
+            }
+            return value;
+        } finally {
+            entries.loading.remove(key, task);
+        }
+    }
+
+    private <T> T load(Loader<T> loader) {
+        try {
+            return loader.load();
+        } catch (DataProviderException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DataProviderException(e);
+        }
+    }
+
+    private static Object await(FutureTask<Object> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProviderException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataProviderException) {
+                throw (DataProviderException) e.getCause();
+            }
+            throw new DataProviderException(e.getCause());
+        }
+    }
+
+    private long getTtlMillis() {
+        if (ttlMillis == null) {
+            ttlMillis = TimeUnit.SECONDS.toMillis(ProviderConfig.getLong(TTL_KEY, DEFAULT_TTL_SECONDS));
+        }
+        return ttlMillis;
+    }
+
+    private static ExecutorService createRefresher() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "metadata-refresher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static class Entries {
+
+        private final Map<String, Entry> values = new ConcurrentHashMap<>();
+
+        private final Map<String, FutureTask<Object>> loading = new ConcurrentHashMap<>();
+    }
+
+    private static class Entry {
+
+        private final Object value;
+
+        private final long loadTime;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(Object value) {
+            this.value = value;
+            this.loadTime = System.currentTimeMillis();
+        }
+    }
+
+}
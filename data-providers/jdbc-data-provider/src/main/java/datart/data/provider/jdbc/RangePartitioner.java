@@ -0,0 +1,136 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.jdbc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 将数值或日期列的取值范围 [min, max] 均分为若干段，返回各段的边界。
+ * 第一个和最后一个边界分别为 min 和 max，相邻的两个边界构成一个左闭右开的范围，最后一个范围包含 max。
+ * <p>
+ * Splits the value range [min, max] of a numeric or date column into ranges of equal width and returns their
+ * boundaries. Each pair of adjacent boundaries is a half open range, and the last range includes max.
+ */
+public class RangePartitioner {
+
+    /**
+     * @return 分段边界，列类型不支持分段时返回null
+     */
+    public static List<Object> split(Object min, Object max, int partitions) {
+        if (min == null || max == null || partitions < 1) {
+            return null;
+        }
+        min = normalize(min);
+        max = normalize(max);
+        if (Objects.equals(min, max)) {
+            return Arrays.asList(min, max);
+        }
+        if (min instanceof Number && max instanceof Number) {
+            return splitNumber((Number) min, (Number) max, partitions);
+        }
+        if (min instanceof Date && max instanceof Date) {
+            return splitDate((Date) min, (Date) max, partitions);
+        }
+        return null;
+    }
+
+    private static List<Object> splitNumber(Number min, Number max, int partitions) {
+        BigDecimal lower = toBigDecimal(min);
+        BigDecimal upper = toBigDecimal(max);
+        boolean integral = isIntegral(min) && isIntegral(max);
+        BigDecimal step = upper.subtract(lower).divide(BigDecimal.valueOf(partitions), 10, RoundingMode.DOWN);
+        List<Object> boundaries = new ArrayList<>(partitions + 1);
+        boundaries.add(min);
+        BigDecimal last = lower;
+        for (int i = 1; i < partitions; i++) {
+            BigDecimal boundary = lower.add(step.multiply(BigDecimal.valueOf(i)));
+            if (integral) {
+                boundary = boundary.setScale(0, RoundingMode.DOWN);
+            }
+            if (boundary.compareTo(last) > 0 && boundary.compareTo(upper) < 0) {
+                boundaries.add(boundary);
+                last = boundary;
+            }
+        }
+        boundaries.add(max);
+        return boundaries;
+    }
+
+    private static List<Object> splitDate(Date min, Date max, int partitions) {
+        long lower = min.getTime();
+        long upper = max.getTime();
+        List<Object> boundaries = new ArrayList<>(partitions + 1);
+        boundaries.add(min);
+        long last = lower;
+        for (int i = 1; i < partitions; i++) {
+            long boundary = lower + (upper - lower) / partitions * i;
+            if (boundary > last && boundary < upper) {
+                boundaries.add(new Timestamp(boundary));
+                last = boundary;
+            }
+        }
+        boundaries.add(max);
+        return boundaries;
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        if (value instanceof LocalDate) {
+            return java.sql.Date.valueOf((LocalDate) value);
+        }
+        return value;
+    }
+
+    private static boolean isIntegral(Number number) {
+        if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).scale() <= 0;
+        }
+        return number instanceof Long
+                || number instanceof Integer
+                || number instanceof Short
+                || number instanceof Byte
+                || number instanceof BigInteger;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return BigDecimal.valueOf(number.doubleValue());
+    }
+
+}
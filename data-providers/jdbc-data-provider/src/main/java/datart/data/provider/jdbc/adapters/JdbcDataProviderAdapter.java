@@ -21,13 +21,25 @@ package datart.data.provider.jdbc.adapters;
 import datart.core.base.PageInfo;
 import datart.core.common.Application;
 import datart.core.data.provider.Column;
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.DataCursor;
 import datart.core.data.provider.Dataframe;
 import datart.data.provider.JdbcDataProvider;
+import datart.data.provider.base.ConnectionGovernor;
 import datart.data.provider.base.DataProviderException;
 import datart.data.provider.base.JdbcDriverInfo;
 import datart.data.provider.base.JdbcProperties;
+import datart.data.provider.base.MemoryBudget;
+import datart.data.provider.base.ProviderConfig;
+import datart.data.provider.base.RunningQueryRegistry;
+import datart.data.provider.calcite.SqlBuilder;
 import datart.data.provider.jdbc.DataTypeUtils;
+import datart.data.provider.jdbc.JdbcPoolManager;
+import datart.data.provider.jdbc.PreparedSql;
+import datart.data.provider.jdbc.RangePartitioner;
+import datart.data.provider.jdbc.ResultSetCursor;
 import datart.data.provider.jdbc.ResultSetMapper;
+import datart.data.provider.optimize.ResultCursorRegistry;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +50,8 @@ import javax.sql.DataSource;
 import java.io.Closeable;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Setter
@@ -46,6 +60,12 @@ public class JdbcDataProviderAdapter implements Closeable {
 
     private static final String SQL_DIALECT_PACKAGE = "datart.data.provider.calcite.dialect";
 
+    public static final String PARTITION_THREADS_KEY = "datart.data-provider.jdbc.partition.max-threads";
+
+    private static final int DEFAULT_PARTITION_THREADS = 16;
+
+    private static volatile ExecutorService partitionExecutor;
+
     protected DataSource dataSource;
 
     protected JdbcProperties jdbcProperties;
@@ -56,11 +76,19 @@ public class JdbcDataProviderAdapter implements Closeable {
 
     protected SqlDialect sqlDialect;
 
+    /**
+     * 所属数据源，用于全局连接调度中按数据源限制连接数
+     */
+    protected String sourceId;
+
+    protected int maxActive;
+
     public void init(JdbcProperties jdbcProperties, JdbcDriverInfo driverInfo) {
         try {
             this.jdbcProperties = jdbcProperties;
             this.driverInfo = driverInfo;
             this.dataSource = JdbcDataProvider.getDataSourceFactory().createDataSource(jdbcProperties);
+            this.maxActive = JdbcPoolManager.getMaxActive(jdbcProperties);
         } catch (Exception e) {
             log.error("data provider init error", e);
             throw new DataProviderException(e);
@@ -145,30 +173,57 @@ public class JdbcDataProviderAdapter implements Closeable {
     }
 
     public Dataframe execute(String sql) throws SQLException {
-        try (Connection conn = getConn()) {
-            Statement statement = conn.createStatement();
-            return ResultSetMapper.mapToTableData(statement.executeQuery(sql));
+        return execute(PreparedSql.of(sql));
+    }
+
+    public Dataframe execute(PreparedSql sql) throws SQLException {
+        try (Connection conn = getConn();
+             Statement statement = createStatement(conn, ResultSet.TYPE_FORWARD_ONLY, sql)) {
+            return ResultSetMapper.mapToTableData(executeQuery(statement, sql));
         }
     }
 
     public Dataframe execute(String selectSql, PageInfo pageInfo) throws SQLException {
+        return execute(PreparedSql.of(selectSql), pageInfo);
+    }
+
+    public Dataframe execute(PreparedSql selectSql, PageInfo pageInfo) throws SQLException {
+        return execute(selectSql, pageInfo, false);
+    }
+
+    /**
+     * @param keepResult 是否将完整结果短期保存在服务端，用于后续分页，只在开启缓存的查询上使用
+     */
+    public Dataframe execute(PreparedSql selectSql, PageInfo pageInfo, boolean keepResult) throws SQLException {
+        String cursorKey = null;
+        if (keepResult && ResultCursorRegistry.isEnabled()) {
+            cursorKey = ResultCursorRegistry.fingerprint(jdbcProperties.getUrl(), jdbcProperties.getUser(),
+                    selectSql.getSql(), String.valueOf(selectSql.getParams()));
+            ColumnarDataframe result = ResultCursorRegistry.get(cursorKey);
+            if (result != null) {
+                return ResultCursorRegistry.page(result, pageInfo);
+            }
+        }
         Dataframe dataframe;
-        try (Connection conn = getConn()) {
-            Statement statement = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-            try (ResultSet resultSet = statement.executeQuery(selectSql)) {
+        try (Connection conn = getConn();
+             Statement statement = createStatement(conn, ResultSet.TYPE_SCROLL_INSENSITIVE, selectSql)) {
+            try (ResultSet resultSet = executeQuery(statement, selectSql)) {
+                // keep small results on the server so that later pages are served without re-running the query
+                if (cursorKey != null) {
+                    resultSet.last();
+                    if (resultSet.getRow() <= ResultCursorRegistry.getMaxRows()) {
+                        resultSet.beforeFirst();
+                        ColumnarDataframe result = ColumnarDataframe.from(ResultSetMapper.mapToTableData(resultSet));
+                        ResultCursorRegistry.register(cursorKey, result);
+                        return ResultCursorRegistry.page(result, pageInfo);
+                    }
+                }
                 if (pageInfo.getPageNo() <= 1) {
                     // init pageInfo
                     resultSet.last();
                     initPageInfo(pageInfo, resultSet.getRow());
                     resultSet.first();
                 }
-                //paging through  sql
-                if (supportPaging()) {
-                    dataframe = ResultSetMapper.mapToTableData(resultSet);
-                    dataframe.setPageInfo(pageInfo);
-                    return dataframe;
-                }
-
                 //paging through  jdbc
                 resultSet.absolute((int) Math.min(pageInfo.getTotal(), (pageInfo.getPageNo() - 1) * pageInfo.getPageSize()));
 
@@ -179,8 +234,265 @@ public class JdbcDataProviderAdapter implements Closeable {
         }
     }
 
+    public Dataframe executeOnPage(String pagedSql, String countSql, PageInfo pageInfo) throws SQLException {
+        return executeOnPage(PreparedSql.of(pagedSql), PreparedSql.of(countSql), pageInfo);
+    }
+
+    /**
+     * 由数据库完成分页。pagedSql 中已包含分页子句，第一页时通过 countSql 获取总行数。
+     * <p>
+     * Execute a query that is paged by the database. The total row count is fetched with countSql on the first page.
+     */
+    public Dataframe executeOnPage(PreparedSql pagedSql, PreparedSql countSql, PageInfo pageInfo) throws SQLException {
+        try (Connection conn = getConn()) {
+            if (pageInfo.getPageNo() <= 1 || pageInfo.getTotal() <= 0) {
+                try (Statement statement = createStatement(conn, ResultSet.TYPE_FORWARD_ONLY, countSql);
+                     ResultSet resultSet = executeQuery(statement, countSql)) {
+                    long total = resultSet.next() ? resultSet.getLong(1) : 0;
+                    pageInfo.setTotal(total);
+                }
+                if (pageInfo.getPageNo() < 1) {
+                    pageInfo.setPageNo(1);
+                }
+            }
+            try (Statement statement = createStatement(conn, ResultSet.TYPE_FORWARD_ONLY, pagedSql);
+                 ResultSet resultSet = executeQuery(statement, pagedSql)) {
+                Dataframe dataframe = ResultSetMapper.mapToTableData(resultSet);
+                dataframe.setPageInfo(pageInfo);
+                return dataframe;
+            }
+        }
+    }
+
+    public DataCursor executeStreaming(String sql) throws SQLException {
+        return executeStreaming(PreparedSql.of(sql));
+    }
+
+    /**
+     * 以只进游标的方式执行查询，连接在游标关闭时释放
+     */
+    public DataCursor executeStreaming(PreparedSql sql) throws SQLException {
+        Connection conn = getConn();
+        Statement statement = null;
+        try {
+            statement = createStatement(conn, ResultSet.TYPE_FORWARD_ONLY, sql);
+            return new ResultSetCursor(conn, statement, executeQuery(statement, sql));
+        } catch (SQLException | RuntimeException e) {
+            if (statement != null) {
+                RunningQueryRegistry.unregister(statement);
+                closeOnError(statement, e);
+            }
+            conn.close();
+            throw e;
+        }
+    }
+
+    public Dataframe executePartitioned(String sql, String column, int partitions, int parallelism) throws Exception {
+        return executePartitioned(PreparedSql.of(sql), column, partitions, parallelism);
+    }
+
+    /**
+     * 按分区列的取值范围将查询拆分为多段，使用多个连接并发抽取后合并，分区列为空的行单独抽取。
+     * 各段在不同连接上执行，没有共享的快照，抽取期间源表有写入时可能出现重复或遗漏的行。
+     * 分区列不是数值或日期类型时退化为单连接查询。
+     * <p>
+     * Split the query into ranges of the partition column, fetch the ranges concurrently over separate pooled
+     * connections and merge the results. Rows with a null partition value are fetched separately. The ranges do not
+     * share a snapshot, so concurrent writes to the table may duplicate or drop rows. Falls back to a single query if
+     * the column is neither numeric nor a date.
+     */
+    public Dataframe executePartitioned(PreparedSql sql, String column, int partitions, int parallelism) throws Exception {
+        PreparedSql boundSql = new PreparedSql(SqlBuilder.buildRangeBoundSql(sql.getSql(), column, getSqlDialect()), sql.getParams());
+        Object min;
+        Object max;
+        try (Connection conn = getConn();
+             Statement statement = createStatement(conn, ResultSet.TYPE_FORWARD_ONLY, boundSql);
+             ResultSet resultSet = executeQuery(statement, boundSql)) {
+            resultSet.next();
+            min = resultSet.getObject(1);
+            max = resultSet.getObject(2);
+        }
+        List<Object> boundaries = RangePartitioner.split(min, max, partitions);
+        if (boundaries == null) {
+            log.warn("Column {} can not be partitioned by range, extract with a single query", column);
+            return execute(sql);
+        }
+        // the view query is nested in FROM, so its parameters come before the range bounds
+        String rangeSql = SqlBuilder.buildRangeSql(sql.getSql(), column, false, getSqlDialect());
+        String lastRangeSql = SqlBuilder.buildRangeSql(sql.getSql(), column, true, getSqlDialect());
+        List<Callable<Dataframe>> tasks = new ArrayList<>();
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            List<Object> params = new ArrayList<>(sql.getParams());
+            params.add(boundaries.get(i));
+            params.add(boundaries.get(i + 1));
+            PreparedSql partitionSql = new PreparedSql(i == boundaries.size() - 2 ? lastRangeSql : rangeSql, params);
+            tasks.add(RunningQueryRegistry.propagate(() -> execute(partitionSql)));
+        }
+        PreparedSql nullSql = new PreparedSql(SqlBuilder.buildNullRangeSql(sql.getSql(), column, getSqlDialect()), sql.getParams());
+        tasks.add(RunningQueryRegistry.propagate(() -> execute(nullSql)));
+
+        // the shared executor bounds the threads of all sources, the parallelism of the source bounds its own tasks
+        int window = Math.max(1, Math.min(parallelism, tasks.size()));
+        ExecutorService executor = getPartitionExecutor();
+        List<Future<Dataframe>> futures = new ArrayList<>();
+        // 所有分区共用一个预算，已抽取的分区在合并完成前一直计入单查询上限
+        try (MemoryBudget budget = MemoryBudget.open()) {
+            for (int i = 0; i < window; i++) {
+                futures.add(executor.submit(budget.share(tasks.get(i))));
+            }
+            ColumnarDataframe merged = null;
+            for (int i = 0; i < tasks.size(); i++) {
+                ColumnarDataframe partition = ColumnarDataframe.from(futures.get(i).get());
+                if (i + window < tasks.size()) {
+                    futures.add(executor.submit(budget.share(tasks.get(i + window))));
+                }
+                if (merged == null) {
+                    merged = partition;
+                } else {
+                    merged.appendAll(partition);
+                }
+            }
+            merged.trim();
+            return merged;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw new DataProviderException(e.getCause());
+        } finally {
+            for (Future<Dataframe> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static ExecutorService getPartitionExecutor() {
+        if (partitionExecutor != null) {
+            return partitionExecutor;
+        }
+        synchronized (JdbcDataProviderAdapter.class) {
+            if (partitionExecutor == null) {
+                int threads = Math.max(1, ProviderConfig.getInt(PARTITION_THREADS_KEY, DEFAULT_PARTITION_THREADS));
+                AtomicInteger count = new AtomicInteger();
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "jdbc-partition-extract-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                pool.allowCoreThreadTimeOut(true);
+                partitionExecutor = pool;
+            }
+        }
+        return partitionExecutor;
+    }
+
     private Connection getConn() throws SQLException {
-        return dataSource.getConnection();
+        return ConnectionGovernor.connect(sourceId, maxActive, dataSource::getConnection);
+    }
+
+    /**
+     * 创建只进、只读的查询Statement，并按数据库类型和数据源配置设置fetchSize
+     */
+    protected Statement createStatement(Connection conn, String sql) throws SQLException {
+        return createStatement(conn, ResultSet.TYPE_FORWARD_ONLY, sql);
+    }
+
+    /**
+     * 创建查询Statement。需要关闭自动提交才能使用游标读取的数据库（如PostgreSQL），在此关闭自动提交，连接归还连接池时恢复。
+     * Statement 会设置查询超时并登记到当前查询，以便被取消。
+     * <p>
+     * Create a read-only statement with the configured fetch size and query timeout, registered with the running
+     * query so that it can be cancelled. Auto-commit is switched off for databases that only stream through cursors
+     * inside a transaction, and is restored by the pool when the connection is returned.
+     */
+    protected Statement createStatement(Connection conn, int resultSetType, String sql) throws SQLException {
+        if (!isFetchAutoCommit() && conn.getAutoCommit()) {
+            conn.setAutoCommit(false);
+        }
+        Statement statement = conn.createStatement(resultSetType, ResultSet.CONCUR_READ_ONLY);
+        configStatement(statement, sql);
+        return statement;
+    }
+
+    /**
+     * 创建只读的PreparedStatement，设置与 {@link #createStatement(Connection, int, String)} 相同
+     */
+    protected PreparedStatement prepareStatement(Connection conn, int resultSetType, String sql) throws SQLException {
+        if (!isFetchAutoCommit() && conn.getAutoCommit()) {
+            conn.setAutoCommit(false);
+        }
+        PreparedStatement statement = conn.prepareStatement(sql, resultSetType, ResultSet.CONCUR_READ_ONLY);
+        configStatement(statement, sql);
+        return statement;
+    }
+
+    /**
+     * 有绑定变量时创建PreparedStatement并设置参数，否则创建普通Statement
+     */
+    protected Statement createStatement(Connection conn, int resultSetType, PreparedSql sql) throws SQLException {
+        if (sql.getParams() == null || sql.getParams().isEmpty()) {
+            return createStatement(conn, resultSetType, sql.getSql());
+        }
+        PreparedStatement statement = prepareStatement(conn, resultSetType, sql.getSql());
+        try {
+            for (int i = 0; i < sql.getParams().size(); i++) {
+                statement.setObject(i + 1, sql.getParams().get(i));
+            }
+        } catch (SQLException | RuntimeException e) {
+            RunningQueryRegistry.unregister(statement);
+            closeOnError(statement, e);
+            throw e;
+        }
+        return statement;
+    }
+
+    protected ResultSet executeQuery(Statement statement, PreparedSql sql) throws SQLException {
+        if (statement instanceof PreparedStatement) {
+            return ((PreparedStatement) statement).executeQuery();
+        }
+        return statement.executeQuery(sql.getSql());
+    }
+
+    private void configStatement(Statement statement, String sql) throws SQLException {
+        try {
+            int fetchSize = getFetchSize();
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            int timeout = RunningQueryRegistry.getQueryTimeout(getSourceQueryTimeout());
+            if (timeout > 0) {
+                statement.setQueryTimeout(timeout);
+            }
+            RunningQueryRegistry.register(statement, sql);
+        } catch (SQLException | RuntimeException e) {
+            closeOnError(statement, e);
+            throw e;
+        }
+    }
+
+    private void closeOnError(Statement statement, Exception cause) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * 数据源配置的fetchSize优先，其次使用数据库类型的默认值
+     */
+    protected int getFetchSize() {
+        Object fetchSize = jdbcProperties.getProperties() == null ? null : jdbcProperties.getProperties().get(JdbcDataProvider.FETCH_SIZE);
+        return ProviderConfig.parseInt(JdbcDataProvider.FETCH_SIZE, fetchSize, driverInfo.getFetchSize() == null ? 0 : driverInfo.getFetchSize());
+    }
+
+    protected int getSourceQueryTimeout() {
+        Object timeout = jdbcProperties.getProperties() == null ? null : jdbcProperties.getProperties().get(JdbcDataProvider.QUERY_TIMEOUT);
+        return ProviderConfig.parseInt(JdbcDataProvider.QUERY_TIMEOUT, timeout, 0);
+    }
+
+    protected boolean isFetchAutoCommit() {
+        return driverInfo.getFetchAutoCommit() == null || driverInfo.getFetchAutoCommit();
     }
 
     @Override
@@ -192,8 +504,15 @@ public class JdbcDataProviderAdapter implements Closeable {
 
     }
 
+    /**
+     * 是否由数据库分页。分页子句由SqlDialect生成（LIMIT/OFFSET 或 OFFSET/FETCH），并非所有数据库及版本都支持，
+     * 因此只有在 jdbc-driver.yml 中配置了 db-paging: true 的数据库类型才开启，其它类型仍使用JDBC分页。
+     * <p>
+     * Whether queries are paged by the database with dialect generated clauses. Opt-in per database type through
+     * db-paging in jdbc-driver.yml, other types keep paging through the JDBC result set.
+     */
     public boolean supportPaging() {
-        return false;
+        return Boolean.TRUE.equals(driverInfo.getDbPaging());
     }
 
     public SqlDialect getSqlDialect() {
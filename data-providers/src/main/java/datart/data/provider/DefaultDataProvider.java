@@ -21,8 +21,10 @@ import datart.core.base.PageInfo;
 import datart.core.base.consts.ValueType;
 import datart.core.data.provider.*;
 import datart.data.provider.base.DataProviderException;
+import datart.data.provider.base.MemoryBudget;
 import datart.data.provider.calcite.SqlParserUtils;
 import datart.data.provider.local.LocalDB;
+import datart.data.provider.local.LocalStore;
 import org.springframework.util.CollectionUtils;
 
 import java.io.IOException;
@@ -115,20 +117,33 @@ public abstract class DefaultDataProvider extends DataProvider {
 
     }
 
+    @Override
+    public void resetSource(DataProviderSource source) {
+        LocalStore.invalidate(source.getSourceId());
+    }
+
     @Override
     public Dataframe execute(DataProviderSource config, QueryScript queryScript, ExecuteParam executeParam) throws Exception{
         Dataframe dataframe;
 
-        if (queryScript != null) {
-            String queryKey = queryScript.toQueryKey();
-
-            if (executeParam.isCacheEnable()) {
-                dataframe = LocalDB.queryFromLocal(queryKey, executeParam);
-                if (dataframe != null) return dataframe;
-            }
+        if (queryScript != null && executeParam.isCacheEnable()) {
+            dataframe = LocalDB.queryFromStore(queryScript, executeParam);
+            if (dataframe != null) return dataframe;
         }
         List<Dataframe> fullData = loadFullDataFromSource(config);
-        return LocalDB.executeLocalQuery(queryScript, executeParam, executeParam.isCacheEnable(), fullData);
+        try (MemoryBudget budget = MemoryBudget.open()) {
+            budget.update(fullData);
+            return LocalDB.executeLocalQuery(queryScript, executeParam, executeParam.isCacheEnable(), fullData);
+        }
+    }
+
+    @Override
+    public DataCursor executeStreaming(DataProviderSource config, QueryScript queryScript, ExecuteParam executeParam) throws Exception {
+        List<Dataframe> fullData = loadFullDataFromSource(config);
+        try (MemoryBudget budget = MemoryBudget.open()) {
+            budget.update(fullData);
+            return LocalDB.executeLocalQueryStreaming(queryScript, executeParam, fullData);
+        }
     }
 
     public abstract List<Dataframe> loadFullDataFromSource(DataProviderSource config) throws Exception;
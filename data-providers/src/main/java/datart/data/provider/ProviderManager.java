@@ -28,7 +28,6 @@ import org.springframework.util.CollectionUtils;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -102,6 +101,12 @@ public class ProviderManager extends DataProviderExecuteOptimizer implements Dat
 
     }
 
+    @Override
+    public DataCursor executeStreaming(DataProviderSource source, QueryScript queryScript, ExecuteParam param) throws Exception {
+        DataCursor cursor = getNotNoneDataProvider(source.getType()).executeStreaming(source, queryScript, param);
+        return excludeColumns(cursor, param.getIncludeColumns());
+    }
+
     @Override
     public Set<StdSqlOperator> supportedStdFunctions(DataProviderSource source) {
         return getNotNoneDataProvider(source.getType()).supportedStdFunctions(source);
@@ -113,6 +118,21 @@ public class ProviderManager extends DataProviderExecuteOptimizer implements Dat
         return provider.validateFunction(source, snippet);
     }
 
+    @Override
+    public void resetSource(DataProviderSource source) {
+        getNotNoneDataProvider(source.getType()).resetSource(source);
+    }
+
+    @Override
+    public void refreshMetadata(DataProviderSource source) {
+        getNotNoneDataProvider(source.getType()).refreshMetadata(source);
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics(DataProviderSource source) {
+        return getNotNoneDataProvider(source.getType()).getPoolStatistics(source);
+    }
+
     private void excludeColumns(Dataframe data, Set<String> columns) {
         if (data == null
                 || CollectionUtils.isEmpty(data.getColumns())
@@ -122,30 +142,66 @@ public class ProviderManager extends DataProviderExecuteOptimizer implements Dat
             return;
         }
 
-        List<Integer> excludeIndex = new LinkedList<>();
-        for (int i = 0; i < data.getColumns().size(); i++) {
-            Column column = data.getColumns().get(i);
-            if (!columns.contains(column.getName())) {
-                excludeIndex.add(i);
-                data.getColumns().remove(column);
+        if (data instanceof ColumnarDataframe) {
+            ColumnarDataframe columnar = (ColumnarDataframe) data;
+            for (int i = columnar.getColumns().size() - 1; i >= 0; i--) {
+                if (!columns.contains(columnar.getColumns().get(i).getName())) {
+                    columnar.removeColumn(i);
+                }
             }
+            return;
+        }
+
+        int[] indexes = projectionIndexes(data.getColumns(), columns);
+        if (indexes.length == data.getColumns().size()) {
+            return;
         }
-        if (excludeIndex.size() > 0) {
-            List<List<Object>> rows = data.getRows().parallelStream().map(row -> {
-                List<Object> r = new LinkedList<>();
-                for (int i = 0; i < row.size(); i++) {
-                    if (excludeIndex.size() > 0 && i == excludeIndex.get(0)) {
-                        excludeIndex.remove(0);
-                    } else {
-                        r.add(row.get(i));
-                    }
+        List<Column> included = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            included.add(data.getColumns().get(index));
+        }
+        data.setColumns(included);
+        if (data.getRows() != null) {
+            // 复制可见的列，不保留对原始行的引用，避免无权限的列随结果一起缓存或序列化
+            List<List<Object>> rows = new ArrayList<>(data.getRows().size());
+            for (List<Object> row : data.getRows()) {
+                List<Object> projected = new ArrayList<>(indexes.length);
+                for (int index : indexes) {
+                    projected.add(row.get(index));
                 }
-                return r;
-            }).collect(Collectors.toList());
+                rows.add(projected);
+            }
             data.setRows(rows);
         }
     }
 
+    private DataCursor excludeColumns(DataCursor cursor, Set<String> columns) {
+        if (columns == null
+                || columns.size() == 0
+                || columns.contains("*")) {
+            return cursor;
+        }
+        int[] indexes = projectionIndexes(cursor.getColumns(), columns);
+        if (indexes.length == cursor.getColumns().size()) {
+            return cursor;
+        }
+        List<Column> included = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            included.add(cursor.getColumns().get(index));
+        }
+        return new ProjectionCursor(cursor, included, indexes);
+    }
+
+    private static int[] projectionIndexes(List<Column> columns, Set<String> includeColumns) {
+        int[] indexes = new int[columns.size()];
+        int count = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            if (includeColumns.contains(columns.get(i).getName())) {
+                indexes[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
 
     private DataProvider getNotNoneDataProvider(String type) {
         if (cachedDataProviders.size() == 0) {
@@ -176,4 +232,39 @@ public class ProviderManager extends DataProviderExecuteOptimizer implements Dat
         return dataframe;
     }
 
+    private static class ProjectionCursor implements DataCursor {
+
+        private final DataCursor cursor;
+
+        private final List<Column> columns;
+
+        private final int[] indexes;
+
+        private ProjectionCursor(DataCursor cursor, List<Column> columns, int[] indexes) {
+            this.cursor = cursor;
+            this.columns = columns;
+            this.indexes = indexes;
+        }
+
+        @Override
+        public List<Column> getColumns() {
+            return columns;
+        }
+
+        @Override
+        public boolean next() throws Exception {
+            return cursor.next();
+        }
+
+        @Override
+        public Object get(int columnIndex) throws Exception {
+            return cursor.get(indexes[columnIndex]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            cursor.close();
+        }
+    }
+
 }
@@ -0,0 +1,358 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.base;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 节点级的连接调度。所有数据源的连接在获取前都需要申请许可，同时受单个数据源的最大连接数和全局最大连接数
+ * datart.data-provider.governor.max-connections 限制。没有空闲许可时按组织排队，组织之间轮转分配，组织内先进先出，
+ * 排队超过 datart.data-provider.governor.queue-timeout-seconds 后失败。连接关闭时归还许可。
+ * <p>
+ * Node wide connection governor. A permit is required before a connection of any source is opened, limited by the
+ * max active connections of the source and by the global cap. When no permit is free, requests queue per
+ * organization: organizations are served round robin and requests of one organization in FIFO order. A request
+ * fails after waiting for the queue timeout. The permit is returned when the connection is closed.
+ */
+@Slf4j
+public class ConnectionGovernor {
+
+    public static final String MAX_CONNECTIONS_KEY = "datart.data-provider.governor.max-connections";
+
+    public static final String QUEUE_TIMEOUT_KEY = "datart.data-provider.governor.queue-timeout-seconds";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+
+    private static final int DEFAULT_QUEUE_TIMEOUT_SECONDS = 60;
+
+    private static final String DEFAULT_ORG = "";
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * 各组织的等待队列，迭代顺序即轮转顺序
+     */
+    private static final LinkedHashMap<String, Deque<Waiter>> QUEUES = new LinkedHashMap<>();
+
+    private static final Map<String, Integer> SOURCE_RUNNING = new HashMap<>();
+
+    private static final Map<String, Integer> ORG_RUNNING = new HashMap<>();
+
+    private static int running;
+
+    private static int queued;
+
+    private static long acquireCount;
+
+    private static long waitCount;
+
+    private static long timeoutCount;
+
+    private static long waitMillis;
+
+    private static long maxWaitMillis;
+
+    private static volatile Integer maxConnections;
+
+    private static volatile Integer queueTimeout;
+
+    @FunctionalInterface
+    public interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * 申请许可后获取连接，返回的连接关闭时归还许可
+     *
+     * @param sourceId    数据源ID，为空时只受全局连接数限制
+     * @param sourceLimit 数据源的最大连接数，小于等于0时不限制
+     * @param supplier    实际获取连接的方法
+     */
+    public static Connection connect(String sourceId, int sourceLimit, ConnectionSupplier supplier) throws SQLException {
+        Permit permit = acquire(sourceId, sourceLimit);
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(ConnectionGovernor.class.getClassLoader(), new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permit.close();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public static Permit acquire(String sourceId, int sourceLimit) throws SQLException {
+        String orgId = RunningQueryRegistry.currentOrgId();
+        Waiter waiter = new Waiter(orgId == null ? DEFAULT_ORG : orgId, sourceId, sourceLimit);
+        long start = System.currentTimeMillis();
+        LOCK.lock();
+        try {
+            QUEUES.computeIfAbsent(waiter.orgId, k -> new ArrayDeque<>()).addLast(waiter);
+            queued++;
+            dispatch();
+            if (!waiter.granted) {
+                waitCount++;
+                await(waiter);
+                long wait = System.currentTimeMillis() - start;
+                waitMillis += wait;
+                maxWaitMillis = Math.max(maxWaitMillis, wait);
+            }
+            acquireCount++;
+            return new Permit(waiter.orgId, sourceId);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    public static GovernorStatistics getStatistics(String orgId) {
+        LOCK.lock();
+        try {
+            GovernorStatistics statistics = new GovernorStatistics();
+            statistics.setMaxConnections(getMaxConnections());
+            statistics.setRunningCount(running);
+            statistics.setQueuedCount(queued);
+            statistics.setAcquireCount(acquireCount);
+            statistics.setWaitCount(waitCount);
+            statistics.setTimeoutCount(timeoutCount);
+            statistics.setWaitMillis(waitMillis);
+            statistics.setMaxWaitMillis(maxWaitMillis);
+            if (orgId != null) {
+                statistics.setOrgRunningCount(ORG_RUNNING.getOrDefault(orgId, 0));
+                Deque<Waiter> queue = QUEUES.get(orgId);
+                statistics.setOrgQueuedCount(queue == null ? 0 : queue.size());
+            }
+            return statistics;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * 数据源排队等待的请求数
+     */
+    public static int getQueuedCount(String sourceId) {
+        LOCK.lock();
+        try {
+            int count = 0;
+            for (Deque<Waiter> queue : QUEUES.values()) {
+                for (Waiter waiter : queue) {
+                    if (sourceId.equals(waiter.sourceId)) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void await(Waiter waiter) throws SQLException {
+        long timeout = getQueueTimeout();
+        long remaining = TimeUnit.SECONDS.toNanos(timeout);
+        try {
+            while (!waiter.granted) {
+                if (timeout <= 0) {
+                    waiter.condition.await();
+                    continue;
+                }
+                if (remaining <= 0) {
+                    removeWaiter(waiter);
+                    timeoutCount++;
+                    log.warn("Waiting for a connection of source {} timed out after {} seconds", waiter.sourceId, timeout);
+                    throw new SQLTransientConnectionException("Too many queries are running, waiting for a connection timed out after " + timeout + " seconds");
+                }
+                remaining = waiter.condition.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (waiter.granted) {
+                release(waiter.orgId, waiter.sourceId);
+            } else {
+                removeWaiter(waiter);
+            }
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    /**
+     * 按组织轮转分配空闲许可，每个组织取队列中第一个数据源有空闲连接的请求
+     */
+    private static void dispatch() {
+        int max = getMaxConnections();
+        boolean granted = true;
+        while (granted && queued > 0 && (max <= 0 || running < max)) {
+            granted = false;
+            Iterator<Map.Entry<String, Deque<Waiter>>> iterator = QUEUES.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Deque<Waiter>> entry = iterator.next();
+                Waiter waiter = firstGrantable(entry.getValue());
+                if (waiter == null) {
+                    continue;
+                }
+                entry.getValue().remove(waiter);
+                grant(waiter);
+                // 分配后组织移到队尾
+                iterator.remove();
+                if (!entry.getValue().isEmpty()) {
+                    QUEUES.put(entry.getKey(), entry.getValue());
+                }
+                granted = true;
+                break;
+            }
+        }
+    }
+
+    private static Waiter firstGrantable(Deque<Waiter> queue) {
+        for (Waiter waiter : queue) {
+            if (waiter.sourceId == null || waiter.sourceLimit <= 0
+                    || SOURCE_RUNNING.getOrDefault(waiter.sourceId, 0) < waiter.sourceLimit) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    private static void grant(Waiter waiter) {
+        queued--;
+        running++;
+        ORG_RUNNING.merge(waiter.orgId, 1, Integer::sum);
+        if (waiter.sourceId != null) {
+            SOURCE_RUNNING.merge(waiter.sourceId, 1, Integer::sum);
+        }
+        waiter.granted = true;
+        waiter.condition.signal();
+    }
+
+    private static void removeWaiter(Waiter waiter) {
+        Deque<Waiter> queue = QUEUES.get(waiter.orgId);
+        if (queue != null && queue.remove(waiter)) {
+            queued--;
+            if (queue.isEmpty()) {
+                QUEUES.remove(waiter.orgId);
+            }
+        }
+    }
+
+    private static void release(String orgId, String sourceId) {
+        LOCK.lock();
+        try {
+            running--;
+            decrement(ORG_RUNNING, orgId);
+            if (sourceId != null) {
+                decrement(SOURCE_RUNNING, sourceId);
+            }
+            dispatch();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void decrement(Map<String, Integer> counts, String key) {
+        counts.computeIfPresent(key, (k, v) -> v <= 1 ? null : v - 1);
+    }
+
+    private static int getMaxConnections() {
+        if (maxConnections == null) {
+            maxConnections = ProviderConfig.getInt(MAX_CONNECTIONS_KEY, DEFAULT_MAX_CONNECTIONS);
+        }
+        return maxConnections;
+    }
+
+    private static int getQueueTimeout() {
+        if (queueTimeout == null) {
+            queueTimeout = ProviderConfig.getInt(QUEUE_TIMEOUT_KEY, DEFAULT_QUEUE_TIMEOUT_SECONDS);
+        }
+        return queueTimeout;
+    }
+
+    /**
+     * 连接许可，关闭时归还，重复关闭无影响
+     */
+    public static class Permit implements AutoCloseable {
+
+        private final String orgId;
+
+        private final String sourceId;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String orgId, String sourceId) {
+            this.orgId = orgId;
+            this.sourceId = sourceId;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(orgId, sourceId);
+            }
+        }
+    }
+
+    private static class Waiter {
+
+        private final String orgId;
+
+        private final String sourceId;
+
+        private final int sourceLimit;
+
+        private final Condition condition = LOCK.newCondition();
+
+        private boolean granted;
+
+        private Waiter(String orgId, String sourceId, int sourceLimit) {
+            this.orgId = orgId;
+            this.sourceId = sourceId;
+            this.sourceLimit = sourceLimit;
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.base;
+
+import lombok.Data;
+
+/**
+ * 全局连接调度的运行统计
+ * <p>
+ * Statistics of the node wide connection governor.
+ */
+@Data
+public class GovernorStatistics {
+
+    /**
+     * 全局最大连接数，小于等于0表示不限制
+     */
+    private int maxConnections;
+
+    private int runningCount;
+
+    private int queuedCount;
+
+    /**
+     * 组织当前占用的连接数
+     */
+    private int orgRunningCount;
+
+    /**
+     * 组织当前排队等待的请求数
+     */
+    private int orgQueuedCount;
+
+    /**
+     * 累计获取连接的次数
+     */
+    private long acquireCount;
+
+    /**
+     * 累计需要排队的次数
+     */
+    private long waitCount;
+
+    /**
+     * 累计排队超时的次数
+     */
+    private long timeoutCount;
+
+    /**
+     * 累计排队时长（毫秒）
+     */
+    private long waitMillis;
+
+    private long maxWaitMillis;
+
+}
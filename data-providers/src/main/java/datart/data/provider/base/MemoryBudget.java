@@ -0,0 +1,249 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.base;
+
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.Dataframe;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 查询结果物化时的内存预算。每次物化持有一个预算，按估算大小向单查询上限和全局上限申请内存，超出时立即失败，
+ * 避免大结果集耗尽堆内存。上限通过 datart.data-provider.memory.query-limit-mb 和
+ * datart.data-provider.memory.global-limit-mb 配置，小于等于0表示不限制，默认分别为最大堆内存的1/4和1/2。
+ * <p>
+ * 全局上限只统计正在物化和处理中的数据：JDBC结果映射期间，以及文件、HTTP数据和本地聚合抽取的数据在本地查询完成之前。
+ * 结果返回给调用方后（序列化、缓存等）不再计入，除非持有者（如服务端分页结果）自行保持预算直到释放数据。
+ * 文件、HTTP数据在全部加载完成后才进行检查。一个查询拆分到多个线程时，通过 {@link #share(Callable)} 共用一个单查询上限。
+ * <p>
+ * Memory budget for materializing query results. Each materialization holds a budget that is charged with the
+ * estimated size of the rows mapped so far, against a per-query limit and a node-wide limit. The node-wide limit only
+ * covers data that is being materialized or processed: JDBC results while they are mapped, and file, HTTP and
+ * extracted data until the local query on them completes. Results handed back to the caller are no longer counted,
+ * unless their holder keeps a budget open until it drops them. File and HTTP data is checked once fully loaded.
+ * A query split across threads shares one per-query limit through {@link #share(Callable)}.
+ */
+@Slf4j
+public class MemoryBudget implements Closeable {
+
+    public static final String QUERY_LIMIT_KEY = "datart.data-provider.memory.query-limit-mb";
+
+    public static final String GLOBAL_LIMIT_KEY = "datart.data-provider.memory.global-limit-mb";
+
+    /**
+     * 物化过程中每隔多少行统计一次内存
+     */
+    public static final int ACCOUNT_INTERVAL = 1024;
+
+    private static final long MB = 1024 * 1024;
+
+    private static final int SAMPLE_ROWS = 1000;
+
+    private static final AtomicLong GLOBAL_RESERVED = new AtomicLong();
+
+    private static final ThreadLocal<MemoryBudget> SHARED = new ThreadLocal<>();
+
+    private static volatile long[] limits;
+
+    /**
+     * 同一个查询所有预算的估算大小之和，与单查询上限比较
+     */
+    private final AtomicLong queryReserved;
+
+    /**
+     * 在共享预算下打开的子预算，关闭时将占用的内存转交给共享预算
+     */
+    private final MemoryBudget parent;
+
+    /**
+     * 已关闭的子预算转交的内存，在本预算关闭时释放
+     */
+    private final AtomicLong retained = new AtomicLong();
+
+    private long reserved;
+
+    /**
+     * 共享预算关闭后，仍在执行的子预算关闭时直接释放
+     */
+    private boolean closed;
+
+    private MemoryBudget(MemoryBudget parent) {
+        this.parent = parent;
+        this.queryReserved = parent == null ? new AtomicLong() : parent.queryReserved;
+    }
+
+    /**
+     * 打开一个预算。在 {@link #share(Callable)} 包装的任务中打开时，与共享预算一起计入单查询上限，
+     * 关闭后占用的内存保留到共享预算关闭。
+     */
+    public static MemoryBudget open() {
+        return new MemoryBudget(SHARED.get());
+    }
+
+    /**
+     * 使任务中打开的预算归属于本预算，用于一个查询拆分到多个线程执行的场景（如分区抽取），
+     * 所有分区的数据合计受单查询上限限制，并保持占用直到本预算关闭。
+     * <p>
+     * Bind the budgets opened by the task to this one, so that the partitions of one query are charged against a
+     * single per-query limit and stay charged until this budget is closed.
+     */
+    public <T> Callable<T> share(Callable<T> task) {
+        return () -> {
+            MemoryBudget previous = SHARED.get();
+            SHARED.set(this);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    SHARED.remove();
+                } else {
+                    SHARED.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * 将本次物化的估算大小更新为 estimatedBytes，超出预算时释放已申请的内存并抛出异常
+     * <p>
+     * Update the estimated size of this materialization. The reservation is released and an exception is thrown when
+     * a limit is exceeded.
+     */
+    public void update(long estimatedBytes) {
+        long delta = estimatedBytes - reserved;
+        reserved = estimatedBytes;
+        long total = queryReserved.addAndGet(delta);
+        long globalReserved = GLOBAL_RESERVED.addAndGet(delta);
+        long queryLimit = getQueryLimit();
+        long globalLimit = getGlobalLimit();
+        if (queryLimit > 0 && total > queryLimit) {
+            close();
+            throw new DataProviderException(String.format("Query result exceeds the memory limit of %dMB, please narrow the query or add filters", queryLimit / MB));
+        }
+        if (globalLimit > 0 && globalReserved > globalLimit) {
+            close();
+            throw new DataProviderException(String.format("Query results in progress exceed the global memory limit of %dMB, please try again later", globalLimit / MB));
+        }
+    }
+
+    /**
+     * 统计已物化的数据，用于非JDBC数据源加载完成后的检查
+     * <p>
+     * Charge dataframes that were materialized outside of the row mapper.
+     */
+    public void update(Collection<Dataframe> dataframes) {
+        long size = 0;
+        if (dataframes != null) {
+            for (Dataframe dataframe : dataframes) {
+                size += estimate(dataframe);
+            }
+        }
+        update(size);
+    }
+
+    @Override
+    public void close() {
+        long released = reserved + retained.getAndSet(0);
+        reserved = 0;
+        if (parent != null) {
+            synchronized (parent) {
+                if (!parent.closed) {
+                    parent.retained.addAndGet(released);
+                    return;
+                }
+            }
+        } else {
+            synchronized (this) {
+                closed = true;
+                released += retained.getAndSet(0);
+            }
+        }
+        queryReserved.addAndGet(-released);
+        GLOBAL_RESERVED.addAndGet(-released);
+    }
+
+    public static long getGlobalReserved() {
+        return GLOBAL_RESERVED.get();
+    }
+
+    /**
+     * 估算Dataframe占用的堆内存。行式数据按前 SAMPLE_ROWS 行的平均大小估算。
+     * <p>
+     * Estimate the heap footprint of a dataframe. Row based frames are extrapolated from a sample of rows.
+     */
+    public static long estimate(Dataframe dataframe) {
+        if (dataframe == null) {
+            return 0;
+        }
+        if (dataframe instanceof ColumnarDataframe) {
+            return ((ColumnarDataframe) dataframe).estimatedSize();
+        }
+        List<List<Object>> rows = dataframe.getRows();
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        int sampleSize = Math.min(rows.size(), SAMPLE_ROWS);
+        long sampled = 0;
+        int i = 0;
+        for (List<Object> row : rows) {
+            if (i++ >= sampleSize) {
+                break;
+            }
+            sampled += estimateRow(row);
+        }
+        return sampled / sampleSize * rows.size();
+    }
+
+    private static long estimateRow(List<Object> row) {
+        long size = 16 + row.size() * 24L;
+        for (Object value : row) {
+            if (value instanceof String) {
+                size += 40 + 2L * ((String) value).length();
+            } else if (value != null) {
+                size += 24;
+            }
+        }
+        return size;
+    }
+
+    private static long getQueryLimit() {
+        return getLimits()[0];
+    }
+
+    private static long getGlobalLimit() {
+        return getLimits()[1];
+    }
+
+    private static long[] getLimits() {
+        if (limits == null) {
+            long maxMemory = Runtime.getRuntime().maxMemory();
+            long queryLimit = ProviderConfig.getLong(QUERY_LIMIT_KEY, maxMemory / 4 / MB) * MB;
+            long globalLimit = ProviderConfig.getLong(GLOBAL_LIMIT_KEY, maxMemory / 2 / MB) * MB;
+            log.info("Query memory budget: query limit {}MB, global limit {}MB", queryLimit / MB, globalLimit / MB);
+            limits = new long[]{queryLimit, globalLimit};
+        }
+        return limits;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.base;
+
+import datart.core.common.Application;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 数据提供者的配置读取。配置项为空或格式错误时使用默认值，格式错误时记录警告；没有Spring上下文时（如单独使用数据提供者）全部使用默认值。
+ * <p>
+ * Reads the settings of the data providers. Blank or malformed values fall back to the default, malformed ones
+ * with a warning. Without a Spring context every setting takes its default.
+ */
+@Slf4j
+public class ProviderConfig {
+
+    private ProviderConfig() {
+    }
+
+    public static String getString(String key) {
+        String value = Application.getContext() == null ? null : Application.getProperty(key);
+        return StringUtils.trimToNull(value);
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return parseInt(key, getString(key), defaultValue);
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value {} of {}, use the default {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 解析数据源属性等非全局配置中的整数
+     *
+     * @param name 配置名称，用于记录警告
+     */
+    public static int parseInt(String name, Object value, int defaultValue) {
+        if (value == null || StringUtils.isBlank(value.toString())) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value {} of {}, use the default {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
+}
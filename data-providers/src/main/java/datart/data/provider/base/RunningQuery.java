@@ -0,0 +1,59 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.base;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 正在执行的查询
+ * <p>
+ * Information about a query in flight.
+ */
+@Data
+@Builder
+public class RunningQuery {
+
+    private String queryId;
+
+    private String orgId;
+
+    private String userId;
+
+    private String sourceId;
+
+    private String viewId;
+
+    private String sql;
+
+    private Date startTime;
+
+    /**
+     * 视图配置的查询超时时间（秒），小于等于0时使用数据源或全局配置
+     */
+    private int timeout;
+
+    /**
+     * 客户端请求的超时时间（秒），只能缩短管理员配置的超时时间，小于等于0时忽略
+     */
+    private int requestedTimeout;
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.base;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 正在执行的查询登记表。查询开始时在当前线程登记，执行过程中创建的 Statement 会关联到该查询，以便按查询ID取消。
+ * 查询超时时间依次取查询（视图）配置、数据源配置和全局配置 datart.data-provider.query-timeout-seconds，
+ * 客户端请求的超时时间只能缩短该时间。
+ * <p>
+ * Registry of queries in flight. A query is bound to the executing thread when it begins, and the statements it
+ * creates are attached to it so that it can be listed and cancelled by id. The timeout of a query falls back to the
+ * source and then to the global setting. A timeout requested by the client can only shorten it.
+ */
+@Slf4j
+public class RunningQueryRegistry {
+
+    public static final String DEFAULT_TIMEOUT_KEY = "datart.data-provider.query-timeout-seconds";
+
+    private static final Map<String, QueryEntry> RUNNING = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<QueryEntry> CURRENT = new ThreadLocal<>();
+
+    private static volatile Integer defaultTimeout;
+
+    public static void begin(RunningQuery query) {
+        QueryEntry entry = new QueryEntry(query);
+        RUNNING.put(query.getQueryId(), entry);
+        CURRENT.set(entry);
+    }
+
+    public static void end() {
+        QueryEntry entry = CURRENT.get();
+        CURRENT.remove();
+        if (entry != null) {
+            RUNNING.remove(entry.query.getQueryId(), entry);
+        }
+    }
+
+    /**
+     * 将 Statement 关联到当前线程的查询。查询已被取消时直接失败。
+     * <p>
+     * Attach a statement to the query of the current thread. Fails if the query has been cancelled already.
+     */
+    public static void register(Statement statement, String sql) {
+        QueryEntry entry = CURRENT.get();
+        if (entry == null) {
+            return;
+        }
+        if (entry.cancelled) {
+            throw new DataProviderException("Query " + entry.query.getQueryId() + " has been cancelled");
+        }
+        entry.query.setSql(sql);
+        entry.statements.add(statement);
+    }
+
+    /**
+     * 解除 Statement 与当前线程查询的关联，用于创建后未能使用就关闭的 Statement
+     */
+    public static void unregister(Statement statement) {
+        QueryEntry entry = CURRENT.get();
+        if (entry != null) {
+            entry.statements.remove(statement);
+        }
+    }
+
+    /**
+     * 当前查询的超时时间（秒），0表示不限制。管理员配置的超时时间依次取视图、数据源和全局配置，
+     * 客户端请求的超时时间只在更短时生效。
+     *
+     * @param sourceTimeout 数据源配置的超时时间
+     */
+    public static int getQueryTimeout(int sourceTimeout) {
+        QueryEntry entry = CURRENT.get();
+        int timeout;
+        if (entry != null && entry.query.getTimeout() > 0) {
+            timeout = entry.query.getTimeout();
+        } else if (sourceTimeout > 0) {
+            timeout = sourceTimeout;
+        } else {
+            timeout = getDefaultTimeout();
+        }
+        int requested = entry == null ? 0 : entry.query.getRequestedTimeout();
+        if (requested > 0 && (timeout <= 0 || requested < timeout)) {
+            return requested;
+        }
+        return timeout;
+    }
+
+    /**
+     * 使在其他线程中执行的任务归属于当前线程的查询，任务中创建的 Statement 同样可以被取消
+     * <p>
+     * Bind a task run by another thread to the query of the current thread, so that its statements can be cancelled too.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        QueryEntry entry = CURRENT.get();
+        if (entry == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(entry);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * 当前线程所属查询的组织ID，没有登记查询时返回null
+     */
+    public static String currentOrgId() {
+        QueryEntry entry = CURRENT.get();
+        return entry == null ? null : entry.query.getOrgId();
+    }
+
+    public static List<RunningQuery> list() {
+        List<RunningQuery> queries = new ArrayList<>();
+        for (QueryEntry entry : RUNNING.values()) {
+            queries.add(entry.query);
+        }
+        return queries;
+    }
+
+    public static RunningQuery get(String queryId) {
+        if (queryId == null) {
+            return null;
+        }
+        QueryEntry entry = RUNNING.get(queryId);
+        return entry == null ? null : entry.query;
+    }
+
+    /**
+     * 取消查询，正在执行的 Statement 会被 cancel
+     *
+     * @return 查询不存在时返回false
+     */
+    public static boolean cancel(String queryId) {
+        QueryEntry entry = RUNNING.get(queryId);
+        if (entry == null) {
+            return false;
+        }
+        entry.cancelled = true;
+        for (Statement statement : entry.statements) {
+            try {
+                if (!statement.isClosed()) {
+                    statement.cancel();
+                }
+            } catch (SQLException e) {
+                log.warn("Failed to cancel statement of query " + queryId, e);
+            }
+        }
+        log.info("Query {} cancelled", queryId);
+        return true;
+    }
+
+    private static int getDefaultTimeout() {
+        if (defaultTimeout == null) {
+            defaultTimeout = ProviderConfig.getInt(DEFAULT_TIMEOUT_KEY, 0);
+        }
+        return defaultTimeout;
+    }
+
+    private static class QueryEntry {
+
+        private final RunningQuery query;
+
+        private final Queue<Statement> statements = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean cancelled;
+
+        private QueryEntry(RunningQuery query) {
+            this.query = query;
+        }
+    }
+
+}
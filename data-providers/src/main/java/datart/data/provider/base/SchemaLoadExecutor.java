@@ -0,0 +1,132 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.base;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 多个schema（文件、接口、本地表）的并行加载。所有数据源共用一个线程池，线程数由
+ * datart.data-provider.schema-load.parallelism 限制。结果与输入顺序一致，失败时报告每个失败的schema。
+ * <p>
+ * Parallel loading of multiple schemas (files, endpoints, local tables) on a bounded executor shared by all sources.
+ * Results keep the input order, and failures are reported per schema.
+ */
+@Slf4j
+public class SchemaLoadExecutor {
+
+    public static final String PARALLELISM_KEY = "datart.data-provider.schema-load.parallelism";
+
+    private static final int DEFAULT_PARALLELISM = 8;
+
+    private static volatile ExecutorService executor;
+
+    @FunctionalInterface
+    public interface Loader<T, R> {
+        R load(T schema) throws Exception;
+    }
+
+    /**
+     * 并行加载各个schema，只有一个schema时在当前线程加载。任一schema失败时等待其余schema结束，
+     * 再抛出包含所有失败schema及原因的异常。
+     *
+     * @param schemas 待加载的schema
+     * @param name    schema的名称，用于报告错误
+     * @param loader  加载单个schema
+     * @return 与输入顺序一致的加载结果
+     */
+    public static <T, R> List<R> loadAll(List<T> schemas, Function<T, String> name, Loader<T, R> loader) {
+        List<R> results = new ArrayList<>(schemas.size());
+        if (schemas.size() == 1) {
+            try {
+                results.add(loader.load(schemas.get(0)));
+            } catch (Exception e) {
+                throw failure(name.apply(schemas.get(0)), e);
+            }
+            return results;
+        }
+        List<Future<R>> futures = new ArrayList<>(schemas.size());
+        for (T schema : schemas) {
+            futures.add(getExecutor().submit(RunningQueryRegistry.propagate(() -> loader.load(schema))));
+        }
+        StringJoiner errors = new StringJoiner("; ");
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                log.error("Failed to load schema " + name.apply(schemas.get(i)), cause);
+                errors.add(name.apply(schemas.get(i)) + ": " + cause.getMessage());
+                failed++;
+                results.add(null);
+            } catch (InterruptedException e) {
+                for (Future<R> future : futures) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new DataProviderException(e);
+            }
+        }
+        if (failed > 0) {
+            throw new DataProviderException("Failed to load " + failed + " of " + schemas.size() + " schemas: " + errors);
+        }
+        return results;
+    }
+
+    private static DataProviderException failure(String name, Exception e) {
+        if (e instanceof DataProviderException) {
+            return (DataProviderException) e;
+        }
+        log.error("Failed to load schema " + name, e);
+        return new DataProviderException(name + ": " + e.getMessage());
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor != null) {
+            return executor;
+        }
+        synchronized (SchemaLoadExecutor.class) {
+            if (executor == null) {
+                int parallelism = Math.max(1, ProviderConfig.getInt(PARALLELISM_KEY, DEFAULT_PARALLELISM));
+                AtomicInteger count = new AtomicInteger();
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "schema-loader-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                pool.allowCoreThreadTimeOut(true);
+                executor = pool;
+            }
+        }
+        return executor;
+    }
+
+}
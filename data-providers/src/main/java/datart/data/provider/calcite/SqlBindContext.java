@@ -0,0 +1,85 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.calcite;
+
+import datart.data.provider.jdbc.PreparedSql;
+import org.apache.calcite.sql.SqlNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 绑定变量模式下，变量和筛选条件的值不再拼接为字面量，而是生成一个占位标记并记录对应的值。
+ * SQL 生成完成后按标记在 SQL 中出现的顺序替换为 ? 并得到绑定值列表，因此 SQL 在生成过程中被再次解析、包装时顺序依然正确。
+ * <p>
+ * In bind mode, variable and filter values are rendered as markers instead of literals and their values are
+ * recorded. Once the SQL is complete, the markers are replaced with ? in the order they appear, which keeps the bind
+ * list in order even though the SQL is re-parsed and wrapped while it is built.
+ */
+public class SqlBindContext {
+
+    private static final String MARKER_PREFIX = "DATART_BIND_";
+
+    private static final String MARKER_SUFFIX = "_";
+
+    private static final Pattern MARKER = Pattern.compile(MARKER_PREFIX + "(\\d+)" + MARKER_SUFFIX);
+
+    private static final ThreadLocal<List<Object>> VALUES = new ThreadLocal<>();
+
+    public static void begin() {
+        VALUES.set(new ArrayList<>());
+    }
+
+    public static boolean isActive() {
+        return VALUES.get() != null;
+    }
+
+    /**
+     * 记录绑定值并返回其占位标记
+     */
+    public static SqlNode bind(Object value) {
+        List<Object> values = VALUES.get();
+        values.add(value);
+        return new SqlFragment(MARKER_PREFIX + (values.size() - 1) + MARKER_SUFFIX);
+    }
+
+    /**
+     * 将 SQL 中的占位标记替换为 ? 并结束绑定
+     */
+    public static PreparedSql end(String sql) {
+        List<Object> values = VALUES.get();
+        VALUES.remove();
+        List<Object> params = new ArrayList<>();
+        StringBuffer buffer = new StringBuffer();
+        Matcher matcher = MARKER.matcher(sql);
+        while (matcher.find()) {
+            params.add(values.get(Integer.parseInt(matcher.group(1))));
+            matcher.appendReplacement(buffer, "?");
+        }
+        matcher.appendTail(buffer);
+        return new PreparedSql(buffer.toString(), params);
+    }
+
+    public static void clear() {
+        VALUES.remove();
+    }
+
+}
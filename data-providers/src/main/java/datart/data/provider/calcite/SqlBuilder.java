@@ -18,6 +18,7 @@
 package datart.data.provider.calcite;
 
 
+import datart.core.base.PageInfo;
 import datart.core.base.consts.ValueType;
 import datart.core.data.provider.ExecuteParam;
 import datart.core.data.provider.SingleTypedValue;
@@ -48,6 +49,8 @@ public class SqlBuilder {
 
     private SqlDialect dialect;
 
+    private boolean withPage;
+
     private SqlBuilder() {
     }
 
@@ -73,6 +76,91 @@ public class SqlBuilder {
         return this;
     }
 
+    /**
+     * 根据ExecuteParam中的PageInfo生成分页子句，具体语法（LIMIT/OFFSET FETCH等）由SqlDialect决定
+     */
+    public SqlBuilder withPage(boolean withPage) {
+        this.withPage = withPage;
+        return this;
+    }
+
+    /**
+     * 生成统计总行数的SQL
+     * <p>
+     * SELECT COUNT(*) FROM (SQL) T
+     */
+    public static String buildCountSql(String sql, SqlDialect dialect) {
+        SqlNodeList selectList = new SqlNodeList(SqlParserPos.ZERO);
+        selectList.add(SqlNodeUtils.createSqlBasicCall(SqlStdOperatorTable.COUNT,
+                Collections.singletonList(SqlIdentifier.star(SqlParserPos.ZERO))));
+        return buildWrappedSql(sql, selectList, null, dialect);
+    }
+
+    /**
+     * 查询分区列的取值范围
+     * <p>
+     * SELECT MIN(column), MAX(column) FROM (SQL) T
+     */
+    public static String buildRangeBoundSql(String sql, String column, SqlDialect dialect) {
+        SqlNodeList selectList = new SqlNodeList(SqlParserPos.ZERO);
+        selectList.add(SqlNodeUtils.createSqlBasicCall(SqlStdOperatorTable.MIN,
+                Collections.singletonList(SqlNodeUtils.createSqlIdentifier(column, T))));
+        selectList.add(SqlNodeUtils.createSqlBasicCall(SqlStdOperatorTable.MAX,
+                Collections.singletonList(SqlNodeUtils.createSqlIdentifier(column, T))));
+        return buildWrappedSql(sql, selectList, null, dialect);
+    }
+
+    /**
+     * 查询分区列在一个取值范围内的数据，范围上下限以绑定变量传入，最后一个范围包含上限
+     * <p>
+     * SELECT * FROM (SQL) T WHERE column &gt;= ? AND column &lt; ?
+     */
+    public static String buildRangeSql(String sql, String column, boolean upperInclusive, SqlDialect dialect) {
+        SqlIdentifier identifier = SqlNodeUtils.createSqlIdentifier(column, T);
+        SqlNode lower = SqlNodeUtils.createSqlBasicCall(SqlStdOperatorTable.GREATER_THAN_OR_EQUAL,
+                Arrays.asList(identifier, new SqlDynamicParam(0, SqlParserPos.ZERO)));
+        SqlNode upper = SqlNodeUtils.createSqlBasicCall(upperInclusive ? SqlStdOperatorTable.LESS_THAN_OR_EQUAL : SqlStdOperatorTable.LESS_THAN,
+                Arrays.asList(identifier, new SqlDynamicParam(1, SqlParserPos.ZERO)));
+        SqlNode where = SqlNodeUtils.createSqlBasicCall(SqlStdOperatorTable.AND, Arrays.asList(lower, upper));
+        return buildWrappedSql(sql, starList(), where, dialect);
+    }
+
+    /**
+     * 查询分区列为空的数据
+     * <p>
+     * SELECT * FROM (SQL) T WHERE column IS NULL
+     */
+    public static String buildNullRangeSql(String sql, String column, SqlDialect dialect) {
+        SqlNode where = SqlNodeUtils.createSqlBasicCall(SqlStdOperatorTable.IS_NULL,
+                Collections.singletonList(SqlNodeUtils.createSqlIdentifier(column, T)));
+        return buildWrappedSql(sql, starList(), where, dialect);
+    }
+
+    private static SqlNodeList starList() {
+        SqlNodeList selectList = new SqlNodeList(SqlParserPos.ZERO);
+        selectList.add(SqlIdentifier.star(SqlParserPos.ZERO));
+        return selectList;
+    }
+
+    private static String buildWrappedSql(String sql, SqlNodeList selectList, SqlNode where, SqlDialect dialect) {
+        SqlNode from = new SqlBasicCall(SqlStdOperatorTable.AS
+                , new SqlNode[]{new SqlFragment("(" + sql + ")"), new SqlIdentifier(T, SqlParserPos.ZERO)}
+                , SqlParserPos.ZERO);
+        SqlSelect sqlSelect = new SqlSelect(SqlParserPos.ZERO,
+                new SqlNodeList(SqlParserPos.ZERO),
+                selectList,
+                from,
+                where,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null);
+        return sqlSelect.toSqlString(dialect).getSql();
+    }
+
     /**
      * 根据页面操作生成的Aggregator,Filter,Group By, Order By等操作符，重新构建SQL。
      * <p>
@@ -182,6 +270,18 @@ public class SqlBuilder {
             selectList.add(SqlIdentifier.star(SqlParserPos.ZERO));
         }
 
+        //paging
+        SqlNode offset = null;
+        SqlNode fetch = null;
+        PageInfo pageInfo = executeParam.getPageInfo();
+        if (withPage && pageInfo != null && pageInfo.getPageSize() > 0) {
+            long skip = Math.max(0, pageInfo.getPageNo() - 1) * pageInfo.getPageSize();
+            if (skip > 0) {
+                offset = SqlLiteral.createExactNumeric(String.valueOf(skip), SqlParserPos.ZERO);
+            }
+            fetch = SqlLiteral.createExactNumeric(String.valueOf(pageInfo.getPageSize()), SqlParserPos.ZERO);
+        }
+
         SqlSelect sqlSelect = new SqlSelect(SqlParserPos.ZERO,
                 keywordList,
                 selectList,
@@ -191,13 +291,130 @@ public class SqlBuilder {
                 having,
                 null,
                 orderBy.size() > 0 ? orderBy : null,
-                null,
-                null,
+                offset,
+                fetch,
                 null);
 
         return sqlSelect.toSqlString(this.dialect).getSql();
     }
 
+    /**
+     * 服务端聚合时，将查询参数引用到的列和非聚合筛选条件下推到视图SQL中，数据库只返回需要的行和列。
+     * 没有指定列、聚合和分组，引用了计算字段或无法确定引用列时不做列裁剪，计算字段上的筛选和聚合筛选仍在本地执行。
+     * <p>
+     * Push the referenced columns and non-aggregate filters into the view SQL in server aggregate mode,
+     * so only the required rows and columns are fetched. Projection is skipped when the query selects no columns,
+     * aggregators or groups (it returns all columns of the view), or when a function column is referenced.
+     * <p>
+     * SELECT [referenced columns] FROM (SQL) T <non-aggregate filters>
+     *
+     * @param requiredColumns 除查询参数引用的列以外，必须保留的列
+     */
+    public String buildPushdown(Collection<String> requiredColumns) throws SqlParseException {
+
+        if (!CollectionUtils.isEmpty(executeParam.getFunctionColumns())) {
+            for (FunctionColumn functionColumn : executeParam.getFunctionColumns()) {
+                functionColumnMap.put(functionColumn.getAlias(), parseSnippet(functionColumn, T));
+            }
+        }
+
+        Set<String> referenced = new LinkedHashSet<>();
+        // 没有指定列、聚合和分组时查询返回视图的所有列，此时只下推筛选条件
+        boolean projection = !CollectionUtils.isEmpty(executeParam.getColumns())
+                || !CollectionUtils.isEmpty(executeParam.getAggregators())
+                || !CollectionUtils.isEmpty(executeParam.getGroups());
+
+        if (requiredColumns != null) {
+            for (String column : requiredColumns) {
+                projection &= addReferencedColumn(referenced, column);
+            }
+        }
+
+        if (!CollectionUtils.isEmpty(executeParam.getColumns())) {
+            for (String column : executeParam.getColumns()) {
+                projection &= addReferencedColumn(referenced, column);
+            }
+        }
+        if (!CollectionUtils.isEmpty(executeParam.getAggregators())) {
+            for (AggregateOperator aggregator : executeParam.getAggregators()) {
+                projection &= addReferencedColumn(referenced, aggregator.getColumn());
+            }
+        }
+        if (!CollectionUtils.isEmpty(executeParam.getGroups())) {
+            for (GroupByOperator group : executeParam.getGroups()) {
+                projection &= addReferencedColumn(referenced, group.getColumn());
+            }
+        }
+        if (!CollectionUtils.isEmpty(executeParam.getOrders())) {
+            for (OrderOperator order : executeParam.getOrders()) {
+                projection &= addReferencedColumn(referenced, order.getColumn());
+            }
+        }
+
+        SqlNode where = null;
+        if (!CollectionUtils.isEmpty(executeParam.getFilters())) {
+            for (FilterOperator filter : executeParam.getFilters()) {
+                projection &= addReferencedColumn(referenced, filter.getColumn());
+                boolean snippetValue = false;
+                if (filter.getValues() != null) {
+                    for (SingleTypedValue value : filter.getValues()) {
+                        if (ValueType.SNIPPET.equals(value.getValueType())) {
+                            snippetValue = true;
+                            projection = false;
+                        }
+                    }
+                }
+                if (filter.getAggOperator() != null || snippetValue || functionColumnMap.containsKey(filter.getColumn())) {
+                    continue;
+                }
+                // 筛选条件在本地还会再执行一次，使用副本避免修改原始的筛选值
+                SqlNode filterSqlNode = filterSqlNode(copyFilter(filter));
+                if (where == null) {
+                    where = filterSqlNode;
+                } else {
+                    where = new SqlBasicCall(SqlStdOperatorTable.AND, new SqlNode[]{where, filterSqlNode}, SqlParserPos.ZERO);
+                }
+            }
+        }
+
+        projection &= !referenced.isEmpty();
+
+        if (!projection && where == null) {
+            return srcSql;
+        }
+
+        SqlNodeList selectList;
+        if (projection) {
+            selectList = new SqlNodeList(SqlParserPos.ZERO);
+            for (String column : referenced) {
+                selectList.add(SqlNodeUtils.createAliasNode(SqlNodeUtils.createSqlIdentifier(column, T), column));
+            }
+        } else {
+            selectList = starList();
+        }
+        return buildWrappedSql(srcSql, selectList, where, dialect);
+    }
+
+    private boolean addReferencedColumn(Set<String> referenced, String column) {
+        if (StringUtils.isBlank(column) || "*".equals(column) || functionColumnMap.containsKey(column)) {
+            return false;
+        }
+        referenced.add(column);
+        return true;
+    }
+
+    private FilterOperator copyFilter(FilterOperator filter) {
+        FilterOperator copy = new FilterOperator();
+        copy.setColumn(filter.getColumn());
+        copy.setSqlOperator(filter.getSqlOperator());
+        if (filter.getValues() != null) {
+            copy.setValues(Arrays.stream(filter.getValues())
+                    .map(value -> new SingleTypedValue(value.getValue(), value.getValueType()))
+                    .toArray(SingleTypedValue[]::new));
+        }
+        return copy;
+    }
+
     private SqlNode createAggNode(AggregateOperator.SqlOperator sqlOperator, String column, String alias) {
         SqlOperator sqlOp = mappingSqlAggFunction(sqlOperator);
         SqlNode sqlNode;
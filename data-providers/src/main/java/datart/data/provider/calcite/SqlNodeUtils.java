@@ -27,6 +27,8 @@ import org.apache.calcite.sql.parser.SqlParserPos;
 import org.apache.calcite.util.DateString;
 import org.apache.calcite.util.TimestampString;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -74,15 +76,23 @@ public class SqlNodeUtils {
         switch (variable.getValueType()) {
             case STRING:
                 return variable.getValues().stream()
-                        .map(SqlSimpleStringLiteral::new)
+                        .map(SqlNodeUtils::createStringLiteral)
                         .collect(Collectors.toList());
             case NUMERIC:
+                if (SqlBindContext.isActive()) {
+                    return variable.getValues().stream().map(v ->
+                            SqlBindContext.bind(new BigDecimal(v.trim()))).collect(Collectors.toList());
+                }
                 return variable.getValues().stream().map(v ->
                         SqlLiteral.createExactNumeric(v, sqlParserPos)).collect(Collectors.toList());
             case BOOLEAN:
                 return variable.getValues().stream().map(v ->
                         SqlLiteral.createBoolean(Boolean.parseBoolean(v), sqlParserPos)).collect(Collectors.toList());
             case DATE:
+                if (SqlBindContext.isActive()) {
+                    return variable.getValues().stream().map(v ->
+                            SqlBindContext.bind(java.sql.Date.valueOf(v.trim()))).collect(Collectors.toList());
+                }
                 return variable.getValues().stream().map(v ->
                         SqlLiteral.createDate(new DateString(v), sqlParserPos)).collect(Collectors.toList());
             case FRAGMENT:
@@ -95,12 +105,18 @@ public class SqlNodeUtils {
     public static SqlNode createSqlNode(SingleTypedValue value, String... names) {
         switch (value.getValueType()) {
             case STRING:
-                return new SqlSimpleStringLiteral(value.getValue().toString());
+                return createStringLiteral(value.getValue().toString());
             case NUMERIC:
+                if (SqlBindContext.isActive()) {
+                    return SqlBindContext.bind(new BigDecimal(value.getValue().toString().trim()));
+                }
                 return SqlLiteral.createExactNumeric(value.getValue().toString(), SqlParserPos.ZERO);
             case BOOLEAN:
                 return SqlLiteral.createBoolean(Boolean.parseBoolean(value.getValue().toString()), SqlParserPos.ZERO);
             case DATE:
+                if (SqlBindContext.isActive()) {
+                    return SqlBindContext.bind(Timestamp.valueOf(value.getValue().toString().trim()));
+                }
                 return SqlLiteral.createTimestamp(new TimestampString(value.getValue().toString()), 3, SqlParserPos.ZERO);
             case FRAGMENT:
                 return new SqlFragment(value.getValue().toString());
@@ -111,6 +127,16 @@ public class SqlNodeUtils {
         }
     }
 
+    /**
+     * 字符串字面量，绑定变量模式下生成绑定变量
+     */
+    public static SqlNode createStringLiteral(String value) {
+        if (SqlBindContext.isActive()) {
+            return SqlBindContext.bind(value);
+        }
+        return new SqlSimpleStringLiteral(value);
+    }
+
     public static SqlNode createSqlNode(SingleTypedValue value) {
         return createSqlNode(value, null);
     }
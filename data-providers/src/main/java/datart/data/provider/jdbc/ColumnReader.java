@@ -0,0 +1,259 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.jdbc;
+
+import datart.core.base.consts.ValueType;
+import datart.core.data.provider.vector.ColumnVector;
+import datart.core.data.provider.vector.DoubleColumnVector;
+import datart.core.data.provider.vector.LongColumnVector;
+import datart.core.data.provider.vector.TimestampColumnVector;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * 按JDBC类型读取结果集中的一列，每个结果集只创建一次。数值和时间类型通过 getLong/getDouble/getTimestamp 读取，
+ * 直接写入基本类型数组，避免逐行装箱；其它类型使用 getObject。流式游标通过 value 逐行读取，返回的类型与写入列后相同。
+ * <p>
+ * Reads one column of a result set, created once per result set according to the JDBC type. Numeric and timestamp
+ * columns are read with getLong/getDouble/getTimestamp straight into primitive buffers; other types use getObject.
+ * Streaming cursors read row by row through value, which returns the same types as the vector would.
+ */
+abstract class ColumnReader {
+
+    protected final int index;
+
+    protected ColumnVector vector;
+
+    private ColumnReader(int index, ColumnVector vector) {
+        this.index = index;
+        this.vector = vector;
+    }
+
+    /**
+     * @param metaData 结果集元数据
+     * @param index    列序号，从1开始
+     * @param type     列的数据类型
+     */
+    static ColumnReader create(ResultSetMetaData metaData, int index, ValueType type) throws SQLException {
+        int sqlType = metaData.getColumnType(index);
+        if (type == ValueType.NUMERIC) {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    return new LongReader(index);
+                case Types.BIGINT:
+                    // 无符号BIGINT可能超出long的范围
+                    return metaData.isSigned(index) ? new LongReader(index) : new ObjectReader(index, type);
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return new DoubleReader(index);
+                default:
+                    // REAL按Float返回，DECIMAL/NUMERIC按BigDecimal返回，保留驱动返回的原值
+                    return new ObjectReader(index, type);
+            }
+        }
+        if (type == ValueType.DATE && sqlType == Types.TIMESTAMP) {
+            return new TimestampReader(index);
+        }
+        if (type == ValueType.STRING) {
+            switch (sqlType) {
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGNVARCHAR:
+                    return new StringReader(index, type);
+                default:
+            }
+        }
+        return new ObjectReader(index, type);
+    }
+
+    /**
+     * 读取当前行的值并追加到列中
+     * <p>
+     * Read the value of the current row and append it to the vector.
+     */
+    abstract void read(ResultSet rs) throws SQLException;
+
+    /**
+     * 读取当前行的值但不写入列，类型与 read 后从列中取出的值一致
+     * <p>
+     * Read the value of the current row without appending it, typed as it would be read back from the vector.
+     */
+    abstract Object value(ResultSet rs) throws SQLException;
+
+    ColumnVector getVector() {
+        return vector;
+    }
+
+    private static class LongReader extends ColumnReader {
+
+        private final LongColumnVector longVector;
+
+        private LongReader(int index) {
+            this(index, (LongColumnVector) ColumnVector.create(ValueType.NUMERIC));
+        }
+
+        private LongReader(int index, LongColumnVector vector) {
+            super(index, vector);
+            this.longVector = vector;
+        }
+
+        @Override
+        void read(ResultSet rs) throws SQLException {
+            long value = rs.getLong(index);
+            if (rs.wasNull()) {
+                longVector.appendNull();
+            } else {
+                longVector.appendLong(value);
+            }
+        }
+
+        @Override
+        Object value(ResultSet rs) throws SQLException {
+            long value = rs.getLong(index);
+            return rs.wasNull() ? null : value;
+        }
+    }
+
+    private static class DoubleReader extends ColumnReader {
+
+        private final DoubleColumnVector doubleVector;
+
+        private DoubleReader(int index) {
+            this(index, new DoubleColumnVector(16));
+        }
+
+        private DoubleReader(int index, DoubleColumnVector vector) {
+            super(index, vector);
+            this.doubleVector = vector;
+        }
+
+        @Override
+        void read(ResultSet rs) throws SQLException {
+            double value = rs.getDouble(index);
+            if (rs.wasNull()) {
+                doubleVector.appendNull();
+            } else {
+                doubleVector.appendDouble(value);
+            }
+        }
+
+        @Override
+        Object value(ResultSet rs) throws SQLException {
+            double value = rs.getDouble(index);
+            return rs.wasNull() ? null : value;
+        }
+    }
+
+    private static class TimestampReader extends ColumnReader {
+
+        private final TimestampColumnVector timestampVector;
+
+        private TimestampReader(int index) {
+            this(index, (TimestampColumnVector) ColumnVector.create(ValueType.DATE));
+        }
+
+        private TimestampReader(int index, TimestampColumnVector vector) {
+            super(index, vector);
+            this.timestampVector = vector;
+        }
+
+        @Override
+        void read(ResultSet rs) throws SQLException {
+            Timestamp value = rs.getTimestamp(index);
+            if (value == null) {
+                timestampVector.appendNull();
+            } else {
+                timestampVector.appendMillis(value.getTime());
+            }
+        }
+
+        @Override
+        Object value(ResultSet rs) throws SQLException {
+            return toMillisPrecision(rs.getTimestamp(index));
+        }
+    }
+
+    private static class StringReader extends ColumnReader {
+
+        private StringReader(int index, ValueType type) {
+            super(index, ColumnVector.create(type));
+        }
+
+        @Override
+        void read(ResultSet rs) throws SQLException {
+            vector.append(rs.getString(index));
+        }
+
+        @Override
+        Object value(ResultSet rs) throws SQLException {
+            return rs.getString(index);
+        }
+    }
+
+    private static class ObjectReader extends ColumnReader {
+
+        private ObjectReader(int index, ValueType type) {
+            super(index, ColumnVector.create(type));
+        }
+
+        @Override
+        void read(ResultSet rs) throws SQLException {
+            Object value = rs.getObject(index);
+            if (value != null && !vector.accept(value)) {
+                vector = vector.widen(value);
+            }
+            vector.append(value);
+        }
+
+        @Override
+        Object value(ResultSet rs) throws SQLException {
+            Object value = rs.getObject(index);
+            if (value == null || !vector.accept(value)) {
+                return value;
+            }
+            if (vector instanceof LongColumnVector) {
+                return ((Number) value).longValue();
+            }
+            if (vector instanceof TimestampColumnVector) {
+                return toMillisPrecision((Timestamp) value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 时间列按毫秒存储，截去毫秒以下的精度
+     */
+    private static Timestamp toMillisPrecision(Timestamp value) {
+        if (value == null || value.getNanos() % 1_000_000 == 0) {
+            return value;
+        }
+        return new Timestamp(value.getTime());
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.jdbc;
+
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 带绑定变量的SQL，params 按 SQL 中 ? 出现的顺序排列
+ * <p>
+ * SQL with ? placeholders and the values bound to them, in the order they appear.
+ */
+@Data
+public class PreparedSql {
+
+    private String sql;
+
+    private List<Object> params;
+
+    public PreparedSql(String sql, List<Object> params) {
+        this.sql = sql;
+        this.params = params;
+    }
+
+    public static PreparedSql of(String sql) {
+        return new PreparedSql(sql, Collections.emptyList());
+    }
+
+    /**
+     * 用于展示的脚本，有绑定变量时在SQL后附加变量值
+     * <p>
+     * The script shown to users: the SQL followed by the bound values, if any.
+     */
+    public String toScript() {
+        if (params == null || params.isEmpty()) {
+            return sql;
+        }
+        return sql + "\n-- params: " + params;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.jdbc;
+
+import datart.core.data.provider.Column;
+import datart.core.data.provider.DataCursor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 基于JDBC ResultSet的游标，关闭时依次释放 ResultSet、Statement 和连接。逐列读取使用与 ResultSetMapper 相同的 ColumnReader，
+ * 流式返回的值与一次性加载的结果类型一致。
+ * <p>
+ * A cursor over a JDBC result set. Closing it releases the result set, the statement and the connection. Cells are
+ * read through the same ColumnReaders as ResultSetMapper, so streamed values have the same types as mapped results.
+ */
+@Slf4j
+public class ResultSetCursor implements DataCursor {
+
+    private final Connection connection;
+
+    private final Statement statement;
+
+    private final ResultSet resultSet;
+
+    private final List<Column> columns;
+
+    private final ColumnReader[] readers;
+
+    public ResultSetCursor(Connection connection, Statement statement, ResultSet resultSet) throws SQLException {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.columns = ResultSetMapper.getColumns(resultSet);
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        this.readers = new ColumnReader[columns.size()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = ColumnReader.create(metaData, i + 1, columns.get(i).getType());
+        }
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        return resultSet.next();
+    }
+
+    @Override
+    public Object get(int columnIndex) throws SQLException {
+        return readers[columnIndex].value(resultSet);
+    }
+
+    @Override
+    public void close() throws IOException {
+        SQLException exception = null;
+        for (AutoCloseable closeable : new AutoCloseable[]{resultSet, statement, connection}) {
+            if (closeable == null) {
+                continue;
+            }
+            try {
+                closeable.close();
+            } catch (SQLException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+            } catch (Exception e) {
+                log.warn("Failed to close cursor resource", e);
+            }
+        }
+        if (exception != null) {
+            throw new IOException(exception);
+        }
+    }
+
+}
@@ -20,9 +20,13 @@ package datart.data.provider.jdbc;
 
 import datart.core.base.consts.ValueType;
 import datart.core.data.provider.Column;
+import datart.core.data.provider.ColumnarDataframe;
 import datart.core.data.provider.Dataframe;
+import datart.core.data.provider.vector.ColumnVector;
+import datart.data.provider.base.MemoryBudget;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,10 +34,15 @@ import java.util.List;
 public class ResultSetMapper {
 
     public static List<Column> getColumns(ResultSet rs) throws SQLException {
-        ArrayList<Column> columns = new ArrayList<>();
-        for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
-            String columnTypeName = rs.getMetaData().getColumnTypeName(i);
-            String columnName = rs.getMetaData().getColumnName(i);
+        return getColumns(rs.getMetaData());
+    }
+
+    private static List<Column> getColumns(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        ArrayList<Column> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            String columnTypeName = metaData.getColumnTypeName(i);
+            String columnName = metaData.getColumnName(i);
             ValueType valueType = DataTypeUtils.sqlType2DataType(columnTypeName);
             columns.add(new Column(columnName, valueType));
         }
@@ -45,24 +54,42 @@ public class ResultSetMapper {
     }
 
     public static Dataframe mapToTableData(ResultSet rs, long count) throws SQLException {
-        Dataframe dataframe = new Dataframe();
-        List<Column> columns = getColumns(rs);
-        ArrayList<List<Object>> rows = new ArrayList<>();
+        ResultSetMetaData metaData = rs.getMetaData();
+        List<Column> columns = getColumns(metaData);
+        ColumnReader[] readers = new ColumnReader[columns.size()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = ColumnReader.create(metaData, i + 1, columns.get(i).getType());
+        }
         int c = 0;
-        while (rs.next()) {
-            ArrayList<Object> row = new ArrayList<>();
-            rows.add(row);
-            for (int i = 1; i < columns.size() + 1; i++) {
-                row.add(rs.getObject(i));
-            }
-            c++;
-            if (c >= count) {
-                break;
+        try (MemoryBudget budget = MemoryBudget.open()) {
+            while (rs.next()) {
+                for (ColumnReader reader : readers) {
+                    reader.read(rs);
+                }
+                c++;
+                if (c % MemoryBudget.ACCOUNT_INTERVAL == 0) {
+                    budget.update(estimatedSize(readers));
+                }
+                if (c >= count) {
+                    break;
+                }
             }
         }
-        dataframe.setColumns(columns);
-        dataframe.setRows(rows);
+        List<ColumnVector> vectors = new ArrayList<>(readers.length);
+        for (ColumnReader reader : readers) {
+            vectors.add(reader.getVector());
+        }
+        ColumnarDataframe dataframe = new ColumnarDataframe(columns, vectors);
+        dataframe.trim();
         return dataframe;
     }
 
+    private static long estimatedSize(ColumnReader[] readers) {
+        long size = 0;
+        for (ColumnReader reader : readers) {
+            size += reader.getVector().estimatedSize();
+        }
+        return size;
+    }
+
 }
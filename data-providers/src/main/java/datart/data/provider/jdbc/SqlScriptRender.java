@@ -22,6 +22,8 @@ import datart.core.data.provider.ExecuteParam;
 import datart.core.data.provider.QueryScript;
 import datart.core.data.provider.ScriptVariable;
 import datart.data.provider.base.DataProviderException;
+import datart.data.provider.calcite.SqlBindContext;
+import datart.data.provider.calcite.SqlBuilder;
 import datart.data.provider.calcite.SqlKindFilter;
 import datart.data.provider.calcite.SqlParserUtils;
 import datart.data.provider.calcite.SqlVariableVisitor;
@@ -45,6 +47,8 @@ import org.apache.commons.lang3.CharUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.CollectionUtils;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -104,6 +108,73 @@ public class SqlScriptRender extends ScriptRender {
     }
 
     public String render(boolean withExecuteParam) throws SqlParseException {
+        return render(withExecuteParam, false, false, null);
+    }
+
+    /**
+     * 生成带分页子句的SQL，由数据库完成分页
+     */
+    public String renderWithPage() throws SqlParseException {
+        return render(true, true, false, null);
+    }
+
+    /**
+     * 生成统计总行数的SQL
+     */
+    public String renderCount() throws SqlParseException {
+        return render(true, false, true, null);
+    }
+
+    /**
+     * 生成服务端聚合时的取数SQL，查询参数引用的列和非聚合筛选条件下推到数据库执行
+     * <p>
+     * Render the extraction SQL for server aggregation, with referenced columns and row filters pushed down.
+     *
+     * @param requiredColumns 除查询参数引用的列以外，必须保留的列（如分区列）
+     */
+    public String renderPushdown(Collection<String> requiredColumns) throws SqlParseException {
+        return render(false, false, false, requiredColumns == null ? Collections.emptySet() : requiredColumns);
+    }
+
+    /**
+     * 以绑定变量模式生成SQL，变量和筛选条件的值生成为 ? 并按顺序返回绑定值
+     * <p>
+     * Render the SQL in bind mode. Variable and filter values become ? placeholders with an ordered bind list.
+     */
+    public PreparedSql renderPrepared(boolean withExecuteParam) throws SqlParseException {
+        return renderPrepared(withExecuteParam, false, false, null);
+    }
+
+    public PreparedSql renderPreparedWithPage() throws SqlParseException {
+        return renderPrepared(true, true, false, null);
+    }
+
+    public PreparedSql renderPreparedCount() throws SqlParseException {
+        return renderPrepared(true, false, true, null);
+    }
+
+    public PreparedSql renderPreparedPushdown(Collection<String> requiredColumns) throws SqlParseException {
+        return renderPrepared(false, false, false, requiredColumns == null ? Collections.emptySet() : requiredColumns);
+    }
+
+    private PreparedSql renderPrepared(boolean withExecuteParam, boolean withPage, boolean count, Collection<String> pushdown) throws SqlParseException {
+        SqlBindContext.begin();
+        try {
+            PreparedSql preparedSql = SqlBindContext.end(renderSql(withExecuteParam, withPage, count, pushdown));
+            log.info("{} {}", preparedSql.getSql(), preparedSql.getParams());
+            return preparedSql;
+        } finally {
+            SqlBindContext.clear();
+        }
+    }
+
+    private String render(boolean withExecuteParam, boolean withPage, boolean count, Collection<String> pushdown) throws SqlParseException {
+        String finalSql = renderSql(withExecuteParam, withPage, count, pushdown);
+        log.info(finalSql);
+        return finalSql;
+    }
+
+    private String renderSql(boolean withExecuteParam, boolean withPage, boolean count, Collection<String> pushdown) throws SqlParseException {
 
         String script;
 
@@ -130,17 +201,24 @@ public class SqlScriptRender extends ScriptRender {
 
         // build with execute params
         if (withExecuteParam) {
-            selectSql = buildWithExecuteParam(selectSql, sqlDialect);
+            selectSql = buildWithExecuteParam(selectSql, sqlDialect, withPage);
+        } else if (pushdown != null) {
+            // pushdown 不为空时，将查询参数下推到视图SQL中，集合内为必须保留的列
+            selectSql = SqlBuilder.builder()
+                    .withExecuteParam(executeParam)
+                    .withDialect(sqlDialect)
+                    .withBaseSql(selectSql)
+                    .buildPushdown(pushdown);
         }
 
         //replace variables
         selectSql = replaceVariables(selectSql);
 
-        String finalSql = script.replace(selectSql0, selectSql);
-
-        log.info(finalSql);
+        if (count) {
+            selectSql = SqlBuilder.buildCountSql(selectSql, sqlDialect);
+        }
 
-        return finalSql;
+        return script.replace(selectSql0, selectSql);
     }
 
     private String findSelectSql(String script) {
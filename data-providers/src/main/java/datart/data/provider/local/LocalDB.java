@@ -21,31 +21,49 @@ import datart.core.base.PageInfo;
 import datart.core.base.consts.Const;
 import datart.core.common.Application;
 import datart.core.data.provider.Column;
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.DataCursor;
 import datart.core.data.provider.Dataframe;
 import datart.core.data.provider.ExecuteParam;
 import datart.core.data.provider.QueryScript;
+import datart.core.data.provider.sql.FilterOperator;
+import datart.core.data.provider.sql.GroupByOperator;
+import datart.core.data.provider.vector.ColumnVector;
+import datart.core.data.provider.vector.DoubleColumnVector;
+import datart.core.data.provider.vector.LongColumnVector;
+import datart.core.data.provider.vector.TimestampColumnVector;
+import datart.data.provider.base.MemoryBudget;
+import datart.data.provider.base.ProviderConfig;
+import datart.data.provider.base.SchemaLoadExecutor;
 import datart.data.provider.calcite.SqlBuilder;
 import datart.data.provider.calcite.dialect.H2Dialect;
 import datart.data.provider.jdbc.DataTypeUtils;
+import datart.data.provider.jdbc.ResultSetCursor;
 import datart.data.provider.jdbc.ResultSetMapper;
 import datart.data.provider.jdbc.SqlScriptRender;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.sql.SqlDialect;
 import org.apache.calcite.sql.parser.SqlParseException;
 import org.apache.calcite.sql.type.SqlTypeName;
-import org.apache.commons.lang3.time.DateFormatUtils;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.StringJoiner;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class LocalDB {
 
-    private static final String MEM_URL = "jdbc:h2:mem:";
+    public static final String ENGINE_KEY = "datart.data-provider.local-engine";
+
+    private static final String ENGINE_H2 = "h2";
+
+    private static final String MEM_URL = "jdbc:h2:mem:datart_local_";
+
+    private static final AtomicLong MEM_SEQUENCE = new AtomicLong();
 
     private static String fileUrl;
 
@@ -55,7 +73,16 @@ public class LocalDB {
 
     private static final String SELECT_START_SQL = "SELECT * FROM %s";
 
-    private static final String INSERT_SQL = "INSERT INTO %s VALUES %s";
+    private static final String INSERT_SQL = "INSERT INTO %s VALUES (%s)";
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    /**
+     * 从游标加载数据时每批读取的行数
+     */
+    private static final int STREAM_BATCH_SIZE = 10000;
+
+    private static volatile LocalQueryEngine engine;
 
     static {
         try {
@@ -66,26 +93,88 @@ public class LocalDB {
     }
 
 
+    /**
+     * 加载数据后执行本地查询
+     *
+     * @param queryScript  查询脚本
+     * @param executeParam 查询参数
+     * @param persistent   是否将加载的数据保存到共享存储中，供相同脚本的后续查询复用
+     * @param srcData      给定的格式化数据
+     * @return 查询结果
+     */
     public static Dataframe executeLocalQuery(QueryScript queryScript, ExecuteParam executeParam, boolean persistent, List<Dataframe> srcData) throws Exception {
-        String sql;
-        if (queryScript == null) {
-            sql = "SELECT * FROM `" + srcData.get(0).getName() + "`";
-        } else {
-            SqlScriptRender render = new SqlScriptRender(queryScript
-                    , executeParam
-                    , SQL_DIALECT
-                    , Const.DEFAULT_VARIABLE_QUOTE);
-            sql = render.render(true);
+        String sql = localScriptSql(queryScript, executeParam, srcData);
+
+        if (persistent && queryScript != null) {
+            return executeOnStore(queryScript.toQueryKey(), queryScript.getSourceId(), sql, executeParam, srcData);
         }
 
-        try (Connection connection = getConnection(persistent)) {
-            for (Dataframe dataframe : srcData) {
-                insertTableData(dataframe, connection);
-            }
+        try (Connection connection = getConnection(srcData)) {
+            insertTables(srcData, connection);
             return executeQuery(sql, connection, executeParam.getPageInfo());
         }
     }
 
+    /**
+     * 加载数据后以游标的方式执行本地查询，游标关闭时释放本地数据库连接
+     *
+     * @param queryScript  查询脚本
+     * @param executeParam 查询参数
+     * @param srcData      给定的格式化数据
+     * @return 查询结果游标
+     */
+    public static DataCursor executeLocalQueryStreaming(QueryScript queryScript, ExecuteParam executeParam, List<Dataframe> srcData) throws Exception {
+        return executeStreaming(localScriptSql(queryScript, executeParam, srcData), srcData);
+    }
+
+    /**
+     * 将游标中的数据分批加载到本地数据库后，以游标的方式执行本地聚合。加载过程中内存中只保留一个批次的数据，
+     * 数据总量事先未知，开启落盘时直接加载到落盘数据库中。游标关闭时释放本地数据库连接。
+     *
+     * @param queryId      本地表名
+     * @param executeParam 查询参数
+     * @param source       待加载数据的游标，加载完成后关闭
+     * @return 查询结果游标
+     */
+    public static DataCursor queryFromLocalStreaming(String queryId, ExecuteParam executeParam, DataCursor source) throws Exception {
+        Connection connection = LocalSpill.isEnabled()
+                ? LocalSpill.open(0)
+                : DriverManager.getConnection(MEM_URL + MEM_SEQUENCE.incrementAndGet());
+        try {
+            try (DataCursor cursor = source) {
+                insertTableData(queryId, cursor, connection);
+            }
+            Statement statement = connection.createStatement();
+            return new ResultSetCursor(connection, statement, statement.executeQuery(localQuerySql(queryId, executeParam)));
+        } catch (Exception e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private static DataCursor executeStreaming(String sql, List<Dataframe> srcData) throws Exception {
+        Connection connection = getConnection(srcData);
+        try {
+            insertTables(srcData, connection);
+            Statement statement = connection.createStatement();
+            return new ResultSetCursor(connection, statement, statement.executeQuery(sql));
+        } catch (Exception e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private static String localScriptSql(QueryScript queryScript, ExecuteParam executeParam, List<Dataframe> srcData) throws SqlParseException {
+        if (queryScript == null) {
+            return "SELECT * FROM `" + srcData.get(0).getName() + "`";
+        }
+        SqlScriptRender render = new SqlScriptRender(queryScript
+                , executeParam
+                , SQL_DIALECT
+                , Const.DEFAULT_VARIABLE_QUOTE);
+        return render.render(true);
+    }
+
     /**
      * 对已有的数据根据查询参数进行本地聚合
      *
@@ -97,14 +186,129 @@ public class LocalDB {
      * @throws SQLException 本地查询异常
      */
     public static Dataframe queryFromLocal(String queryId, ExecuteParam executeParam, boolean persistent, List<Dataframe> srcData) throws Exception {
-        try (Connection connection = getConnection(persistent)) {
-            for (Dataframe dataframe : srcData) {
-                insertTableData(dataframe, connection);
-            }
+        return queryFromLocal(queryId, null, executeParam, persistent, srcData);
+    }
+
+    /**
+     * 对已有的数据根据查询参数进行本地聚合，持久化的数据在数据源变更后失效
+     *
+     * @param sourceId 数据所属的数据源
+     */
+    public static Dataframe queryFromLocal(String queryId, String sourceId, ExecuteParam executeParam, boolean persistent, List<Dataframe> srcData) throws Exception {
+        if (persistent) {
+            return executeOnStore(queryId, sourceId, localQuerySql(queryId, executeParam), executeParam, srcData);
+        }
+        Dataframe result = executeInJvm(executeParam, true, srcData);
+        if (result != null) {
+            // 与H2执行时一致，返回等价的本地SQL作为脚本
+            result.setScript(localQuerySql(queryId, executeParam));
+            return result;
+        }
+        try (Connection connection = getConnection(srcData)) {
+            insertTables(srcData, connection);
             return queryFromLocal(queryId, executeParam, connection);
         }
     }
 
+    /**
+     * 使用共享存储中已加载的数据执行查询脚本，数据不存在或已过期时返回null
+     */
+    public static Dataframe queryFromStore(QueryScript queryScript, ExecuteParam executeParam) throws Exception {
+        LocalStore.Entry entry = LocalStore.acquire(queryScript.toQueryKey());
+        if (entry == null) {
+            return null;
+        }
+        try (Connection connection = LocalStore.getConnection(entry)) {
+            LocalStore.index(entry, indexColumns(executeParam), connection);
+            LocalRollup.Rewrite rewrite = LocalRollup.rewrite(entry, executeParam);
+            if (rewrite != null) {
+                try {
+                    return rewrite.apply(executeQuery(rewrite.getSql(), connection, executeParam.getPageInfo()));
+                } catch (SQLException e) {
+                    log.warn("Failed to query rollup of " + queryScript.toQueryKey() + ", fall back to base tables", e);
+                }
+            }
+            Dataframe dataframe = executeQuery(localScriptSql(queryScript, executeParam, null), connection, executeParam.getPageInfo());
+            LocalRollup.observe(entry, queryScript, executeParam, connection);
+            return dataframe;
+        } finally {
+            LocalStore.release(entry);
+        }
+    }
+
+    /**
+     * 将数据加载到共享存储后执行查询。共享存储在内存中且数据超过落盘阈值时不保存，改为在落盘的临时数据库中执行，
+     * 避免大数据长期占用内存。
+     */
+    private static Dataframe executeOnStore(String key, String sourceId, String sql, ExecuteParam executeParam, List<Dataframe> srcData) throws Exception {
+        long size = 0;
+        for (Dataframe dataframe : srcData) {
+            size += MemoryBudget.estimate(dataframe);
+        }
+        if (!LocalStore.isFileBacked() && LocalSpill.exceedsThreshold(countRows(srcData), size)) {
+            log.info("Data of {} exceeds the spill threshold, query it on disk without keeping it in the local store", key);
+            try (Connection connection = LocalSpill.open(size)) {
+                insertTables(srcData, connection);
+                return executeQuery(sql, connection, executeParam.getPageInfo());
+            }
+        }
+        LocalStore.Entry entry = LocalStore.load(key, sourceId, executeParam.getCacheExpires(), size, connection -> insertTables(srcData, connection));
+        LocalStore.track(entry, indexColumns(executeParam));
+        try (Connection connection = LocalStore.getConnection(entry)) {
+            return executeQuery(sql, connection, executeParam.getPageInfo());
+        } finally {
+            LocalStore.release(entry);
+        }
+    }
+
+    /**
+     * 单个列式数据集上的查询优先由本地查询引擎直接执行，引擎不支持时返回null，改由H2执行。
+     * 目前只用于不缓存的服务端聚合查询；视图脚本、缓存的数据和流式查询仍由H2执行。
+     * <p>
+     * Only the non-cached server aggregate path uses the engine. View scripts, cached loads and the streaming path
+     * still run on H2.
+     */
+    private static Dataframe executeInJvm(ExecuteParam executeParam, boolean withPage, List<Dataframe> srcData) {
+        if (srcData == null || srcData.size() != 1 || !(srcData.get(0) instanceof ColumnarDataframe)) {
+            return null;
+        }
+        return getEngine().execute((ColumnarDataframe) srcData.get(0), executeParam, withPage);
+    }
+
+    /**
+     * 配置项 datart.data-provider.local-engine 为 h2 时不使用本地查询引擎
+     */
+    private static LocalQueryEngine getEngine() {
+        if (engine == null) {
+            engine = ENGINE_H2.equalsIgnoreCase(ProviderConfig.getString(ENGINE_KEY))
+                    ? (data, executeParam, withPage) -> null
+                    : new VectorizedQueryEngine();
+        }
+        return engine;
+    }
+
+    /**
+     * 查询中可以使用索引的列：非聚合过滤条件和分组所用的列
+     */
+    private static Set<String> indexColumns(ExecuteParam executeParam) {
+        Set<String> columns = new LinkedHashSet<>();
+        if (executeParam.getFilters() != null) {
+            for (FilterOperator filter : executeParam.getFilters()) {
+                if (filter.getAggOperator() == null && filter.getColumn() != null) {
+                    columns.add(filter.getColumn());
+                }
+            }
+        }
+        if (executeParam.getGroups() != null) {
+            for (GroupByOperator group : executeParam.getGroups()) {
+                if (group.getColumn() != null) {
+                    columns.add(group.getColumn());
+                }
+            }
+        }
+        return columns;
+    }
+
     private static Dataframe queryFromLocal(String queryId, ExecuteParam executeParam, Connection connection) throws Exception {
         String sql = localQuerySql(queryId, executeParam);
         return executeQuery(sql, connection, executeParam.getPageInfo());
@@ -126,21 +330,48 @@ public class LocalDB {
         return dataframe;
     }
 
-    public static Dataframe queryFromLocal(String queryId, ExecuteParam executeParam, boolean persistent) {
-        try (Connection connection = getConnection(persistent)) {
-            String sql = localQuerySql(queryId, executeParam);
-
-            ResultSet resultSet = connection.createStatement().executeQuery(sql);
-
-            return ResultSetMapper.mapToTableData(resultSet);
-        } catch (SQLException | SqlParseException e) {
-            e.printStackTrace();
+    /**
+     * 使用共享存储中已加载的数据进行本地聚合，数据不存在或已过期时返回null
+     */
+    public static Dataframe queryFromLocal(String queryId, ExecuteParam executeParam) {
+        LocalStore.Entry entry = LocalStore.acquire(queryId);
+        if (entry == null) {
             return null;
         }
+        try (Connection connection = LocalStore.getConnection(entry)) {
+            LocalStore.index(entry, indexColumns(executeParam), connection);
+            return queryFromLocal(queryId, executeParam, connection);
+        } catch (Exception e) {
+            log.warn("Failed to query local store " + queryId, e);
+            return null;
+        } finally {
+            LocalStore.release(entry);
+        }
     }
 
-    public static Dataframe queryFromLocal(String queryId, ExecuteParam executeParam) {
-        return queryFromLocal(queryId, executeParam, true);
+    /**
+     * 插入多个数据集时，各数据集使用独立的连接并行建表和插入，连接的数据库和schema与给定的连接相同
+     */
+    private static void insertTables(List<Dataframe> srcData, Connection connection) throws SQLException {
+        if (srcData.size() <= 1) {
+            for (Dataframe dataframe : srcData) {
+                insertTableData(dataframe, connection);
+            }
+            return;
+        }
+        String url = connection.getMetaData().getURL();
+        String schema = connection.getSchema();
+        SchemaLoadExecutor.loadAll(srcData, dataframe -> dataframe == null ? null : dataframe.getName(), dataframe -> {
+            try (Connection conn = DriverManager.getConnection(url)) {
+                if (schema != null) {
+                    try (Statement statement = conn.createStatement()) {
+                        statement.execute("SET SCHEMA \"" + schema + "\"");
+                    }
+                }
+                insertTableData(dataframe, conn);
+            }
+            return dataframe;
+        });
     }
 
     private static void createTable(String tableName, List<Column> columns, Connection connection) throws SQLException {
@@ -148,20 +379,196 @@ public class LocalDB {
         connection.createStatement().execute(sql);
     }
 
+    /**
+     * 建表后以批量 PreparedStatement 的方式插入数据，数值、日期和字符串按类型绑定，列式数据直接从基本类型数组读取。
+     * <p>
+     * Create the table and load the rows with batched prepared statements and typed binds. Columnar data is read
+     * straight from the primitive vectors.
+     */
     private static void insertTableData(Dataframe dataframe, Connection connection) throws SQLException {
         if (dataframe == null) {
             return;
         }
-        createTable(dataframe.getName(), dataframe.getColumns(), connection);
+        List<Column> columns = dataframe.getColumns();
+        createTable(dataframe.getName(), columns, connection);
+        if (columns.isEmpty()) {
+            return;
+        }
+        int[] sqlTypes = sqlTypes(columns);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(insertSql(dataframe.getName(), columns))) {
+            insertDataframe(dataframe, sqlTypes, statement);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
 
-        String insertSql = createInsertSql(dataframe.getName(), dataframe.getRows(), dataframe.getColumns());
+    /**
+     * 从游标中按批次读取数据并插入，每个批次单独提交
+     */
+    private static void insertTableData(String tableName, DataCursor cursor, Connection connection) throws Exception {
+        List<Column> columns = cursor.getColumns();
+        createTable(tableName, columns, connection);
+        if (columns.isEmpty()) {
+            return;
+        }
+        int[] sqlTypes = sqlTypes(columns);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(insertSql(tableName, columns))) {
+            Dataframe batch;
+            while ((batch = cursor.nextBatch(STREAM_BATCH_SIZE)) != null) {
+                insertDataframe(batch, sqlTypes, statement);
+                connection.commit();
+            }
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
 
-        connection.createStatement().execute(insertSql);
+    private static int[] sqlTypes(List<Column> columns) {
+        int[] sqlTypes = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            sqlTypes[i] = DataTypeUtils.javaType2SqlType(columns.get(i).getType()).getJdbcOrdinal();
+        }
+        return sqlTypes;
+    }
 
+    private static String insertSql(String tableName, List<Column> columns) {
+        StringJoiner params = new StringJoiner(",");
+        for (int i = 0; i < columns.size(); i++) {
+            params.add("?");
+        }
+        return String.format(INSERT_SQL, tableName, params);
     }
 
-    private static Connection getConnection(boolean persistent) throws SQLException {
-        return false ? DriverManager.getConnection(getFileUrl()) : DriverManager.getConnection(MEM_URL);
+    private static void insertDataframe(Dataframe dataframe, int[] sqlTypes, PreparedStatement statement) throws SQLException {
+        if (dataframe instanceof ColumnarDataframe) {
+            insertColumnar((ColumnarDataframe) dataframe, sqlTypes, statement);
+        } else {
+            insertRows(dataframe.getRows(), dataframe.getColumns(), sqlTypes, statement);
+        }
+    }
+
+    private static void insertColumnar(ColumnarDataframe dataframe, int[] sqlTypes, PreparedStatement statement) throws SQLException {
+        List<Column> columns = dataframe.getColumns();
+        int rowCount = dataframe.getRowCount();
+        for (int row = 0; row < rowCount; row++) {
+            for (int i = 0; i < columns.size(); i++) {
+                bindValue(statement, i + 1, columns.get(i), sqlTypes[i], dataframe.getVector(i), row);
+            }
+            statement.addBatch();
+            if ((row + 1) % INSERT_BATCH_SIZE == 0) {
+                statement.executeBatch();
+            }
+        }
+        statement.executeBatch();
+    }
+
+    private static void insertRows(List<List<Object>> rows, List<Column> columns, int[] sqlTypes, PreparedStatement statement) throws SQLException {
+        if (rows == null) {
+            return;
+        }
+        int count = 0;
+        for (List<Object> row : rows) {
+            for (int i = 0; i < columns.size(); i++) {
+                bindValue(statement, i + 1, columns.get(i), sqlTypes[i], row.get(i));
+            }
+            statement.addBatch();
+            if (++count % INSERT_BATCH_SIZE == 0) {
+                statement.executeBatch();
+            }
+        }
+        statement.executeBatch();
+    }
+
+    private static void bindValue(PreparedStatement statement, int index, Column column, int sqlType, ColumnVector vector, int row) throws SQLException {
+        if (vector.isNull(row)) {
+            statement.setNull(index, sqlType);
+            return;
+        }
+        switch (column.getType()) {
+            case NUMERIC:
+                if (vector instanceof LongColumnVector) {
+                    statement.setDouble(index, ((LongColumnVector) vector).getLong(row));
+                    return;
+                }
+                if (vector instanceof DoubleColumnVector) {
+                    statement.setDouble(index, ((DoubleColumnVector) vector).getDouble(row));
+                    return;
+                }
+                break;
+            case DATE:
+                if (vector instanceof TimestampColumnVector) {
+                    statement.setTimestamp(index, new Timestamp(((TimestampColumnVector) vector).getMillis(row)));
+                    return;
+                }
+                break;
+            default:
+        }
+        bindValue(statement, index, column, sqlType, vector.get(row));
+    }
+
+    private static void bindValue(PreparedStatement statement, int index, Column column, int sqlType, Object val) throws SQLException {
+        if (val == null) {
+            statement.setNull(index, sqlType);
+            return;
+        }
+        switch (column.getType()) {
+            case NUMERIC:
+                if (val instanceof Number) {
+                    statement.setDouble(index, ((Number) val).doubleValue());
+                } else {
+                    statement.setString(index, val.toString());
+                }
+                break;
+            case DATE:
+                if (val instanceof Timestamp) {
+                    statement.setTimestamp(index, (Timestamp) val);
+                } else if (val instanceof java.util.Date) {
+                    statement.setTimestamp(index, new Timestamp(((java.util.Date) val).getTime()));
+                } else if (val instanceof LocalDateTime) {
+                    statement.setTimestamp(index, Timestamp.valueOf((LocalDateTime) val));
+                } else {
+                    statement.setNull(index, sqlType);
+                }
+                break;
+            default:
+                statement.setString(index, val.toString());
+        }
+    }
+
+    /**
+     * 加载的数据超过落盘阈值时使用临时目录中的文件数据库，否则使用内存数据库
+     */
+    private static Connection getConnection(List<Dataframe> srcData) throws SQLException {
+        long size = 0;
+        for (Dataframe dataframe : srcData) {
+            size += MemoryBudget.estimate(dataframe);
+        }
+        if (LocalSpill.exceedsThreshold(countRows(srcData), size)) {
+            return LocalSpill.open(size);
+        }
+        // 每次查询使用独立命名的内存数据库，以便并行插入时打开多个连接
+        return DriverManager.getConnection(MEM_URL + MEM_SEQUENCE.incrementAndGet());
+    }
+
+    private static long countRows(List<Dataframe> srcData) {
+        long rows = 0;
+        for (Dataframe dataframe : srcData) {
+            if (dataframe != null && dataframe.getRows() != null) {
+                rows += dataframe.getRows().size();
+            }
+        }
+        return rows;
     }
 
     private static String localQuerySql(String queryId, ExecuteParam executeParam) throws SqlParseException {
@@ -181,46 +588,7 @@ public class LocalDB {
         return String.format(TABLE_CREATE_SQL_TEMPLATE, name, sj);
     }
 
-    private static String createInsertSql(String tableName, List<List<Object>> data, List<Column> columns) {
-        return data.parallelStream().map(row -> {
-            StringJoiner stringJoiner = new StringJoiner(",", "(", ")");
-            for (int i = 0; i < row.size(); i++) {
-                Object val = row.get(i);
-                if (val == null) {
-                    stringJoiner.add(null);
-                    continue;
-                }
-                Column column = columns.get(i);
-                switch (column.getType()) {
-                    case NUMERIC:
-                        stringJoiner.add(val.toString());
-                        break;
-                    case DATE:
-                        String valStr;
-                        if (val instanceof Timestamp) {
-                            valStr = DateFormatUtils.format((Timestamp) val, Const.DEFAULT_DATE_FORMAT);
-                        } else if (val instanceof Date) {
-                            valStr = DateFormatUtils.format((Date) val, Const.DEFAULT_DATE_FORMAT);
-                        } else if (val instanceof LocalDateTime) {
-                            valStr = ((LocalDateTime) val).format(DateTimeFormatter.ofPattern(Const.DEFAULT_DATE_FORMAT));
-                        } else {
-                            valStr = null;
-                        }
-                        if (valStr != null) {
-                            valStr = "PARSEDATETIME('" + valStr + "','" + Const.DEFAULT_DATE_FORMAT + "')";
-                        }
-                        stringJoiner.add(valStr);
-                        break;
-                    default:
-                        stringJoiner.add("'" + val + "'");
-                }
-            }
-            return String.format(INSERT_SQL, tableName, stringJoiner);
-        }).collect(Collectors.joining(";"));
-
-    }
-
-    private static String getFileUrl() {
+    static String getFileUrl() {
         if (fileUrl != null) {
             return fileUrl;
         }
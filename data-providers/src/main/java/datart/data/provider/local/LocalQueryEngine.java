@@ -0,0 +1,41 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.local;
+
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.Dataframe;
+import datart.core.data.provider.ExecuteParam;
+
+/**
+ * 本地查询引擎，直接在内存中的列式数据上执行查询参数。不支持的查询返回null，由H2执行。
+ * <p>
+ * Local query engine evaluating an execute param directly over in-memory columnar data. Returns null for queries it
+ * does not support, which are then run by H2.
+ */
+public interface LocalQueryEngine {
+
+    /**
+     * @param data         已加载的数据
+     * @param executeParam 查询参数
+     * @param withPage     是否按查询参数中的分页信息分页
+     * @return 查询结果，不支持该查询时返回null
+     */
+    Dataframe execute(ColumnarDataframe data, ExecuteParam executeParam, boolean withPage);
+
+}
@@ -0,0 +1,457 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.local;
+
+import datart.core.base.consts.Const;
+import datart.core.base.consts.ValueType;
+import datart.core.data.provider.Dataframe;
+import datart.core.data.provider.ExecuteParam;
+import datart.core.data.provider.QueryScript;
+import datart.core.data.provider.SingleTypedValue;
+import datart.core.data.provider.sql.AggregateOperator;
+import datart.core.data.provider.sql.FilterOperator;
+import datart.core.data.provider.sql.FunctionColumn;
+import datart.core.data.provider.sql.GroupByOperator;
+import datart.core.data.provider.sql.OrderOperator;
+import datart.data.provider.base.ProviderConfig;
+import datart.data.provider.calcite.SqlBuilder;
+import datart.data.provider.jdbc.SqlScriptRender;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.CollectionUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 共享存储中数据的预聚合表（rollup）。登记已加载数据被查询时的分组、筛选列和聚合方式，同一组合出现
+ * datart.data-provider.rollup.min-hits 次后，在数据所在的schema中建立按这些列预聚合的表。分组相同或更粗、
+ * 聚合方式可以再聚合（SUM/COUNT/MIN/MAX，分组完全相同时不限）的查询改为查询预聚合表。预聚合表随数据一起失效。
+ * <p>
+ * Rollups of the data in the shared local store. The group, filter column and aggregation combinations requested
+ * against loaded data are counted, and once a combination has been seen min-hits times, a table pre-aggregated by
+ * those columns is materialized next to the base tables. Queries with the same or a coarser grouping and
+ * re-aggregatable functions are then answered from the rollup. Rollups are dropped together with the loaded data.
+ */
+@Slf4j
+public class LocalRollup {
+
+    public static final String ENABLED_KEY = "datart.data-provider.rollup.enabled";
+
+    public static final String MIN_HITS_KEY = "datart.data-provider.rollup.min-hits";
+
+    public static final String MAX_TABLES_KEY = "datart.data-provider.rollup.max-tables";
+
+    private static final int DEFAULT_MIN_HITS = 3;
+
+    private static final int DEFAULT_MAX_TABLES = 4;
+
+    private static final Set<AggregateOperator.SqlOperator> REAGGREGATABLE = EnumSet.of(
+            AggregateOperator.SqlOperator.SUM,
+            AggregateOperator.SqlOperator.COUNT,
+            AggregateOperator.SqlOperator.MIN,
+            AggregateOperator.SqlOperator.MAX);
+
+    private static final String T = "T";
+
+    /**
+     * 一份已加载数据的预聚合表和各组合的出现次数
+     */
+    static class Rollups {
+
+        private final Map<String, Integer> hits = new HashMap<>();
+
+        private final Set<String> attempted = new HashSet<>();
+
+        private final List<Rollup> tables = new ArrayList<>();
+    }
+
+    /**
+     * 改写为查询预聚合表的SQL，以及结果中需要恢复的列名
+     */
+    public static class Rewrite {
+
+        private final String sql;
+
+        private final Map<Integer, String> columnNames;
+
+        private Rewrite(String sql, Map<Integer, String> columnNames) {
+            this.sql = sql;
+            this.columnNames = columnNames;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Dataframe apply(Dataframe dataframe) {
+            columnNames.forEach((index, name) -> dataframe.getColumns().get(index).setName(name));
+            return dataframe;
+        }
+    }
+
+    /**
+     * 存在可以回答该查询的预聚合表时，返回查询预聚合表的SQL，否则返回null
+     */
+    static Rewrite rewrite(LocalStore.Entry entry, ExecuteParam executeParam) throws SqlParseException {
+        if (!isEnabled()) {
+            return null;
+        }
+        Shape shape = Shape.of(executeParam);
+        if (shape == null) {
+            return null;
+        }
+        Rollup rollup = null;
+        synchronized (entry.rollups) {
+            for (Rollup candidate : entry.rollups.tables) {
+                if (candidate.covers(shape) && (rollup == null || candidate.rows < rollup.rows)) {
+                    rollup = candidate;
+                }
+            }
+        }
+        if (rollup == null) {
+            return null;
+        }
+        boolean exact = rollup.dims.equals(shape.groups);
+        Map<Integer, String> columnNames = new HashMap<>();
+        List<AggregateOperator> aggregators = new ArrayList<>();
+        List<FunctionColumn> functionColumns = new ArrayList<>();
+        int offset = executeParam.getColumns() == null ? 0 : executeParam.getColumns().size();
+        for (AggregateOperator aggregator : executeParam.getAggregators() == null
+                ? new ArrayList<AggregateOperator>() : executeParam.getAggregators()) {
+            if (aggregator.getSqlOperator() == null) {
+                aggregators.add(aggregator);
+            } else {
+                String measure = rollup.measures.get(Shape.measureKey(aggregator.getSqlOperator(), aggregator.getColumn()));
+                AggregateOperator mapped = new AggregateOperator();
+                if (aggregator.getSqlOperator() == AggregateOperator.SqlOperator.COUNT) {
+                    // H2 中 BIGINT 的 SUM 为 DECIMAL，转换回 BIGINT 以保持与 COUNT 相同的类型
+                    FunctionColumn count = new FunctionColumn();
+                    count.setAlias(measure + "_COUNT");
+                    count.setSnippet("CAST(SUM([" + measure + "]) AS BIGINT)");
+                    functionColumns.add(count);
+                    mapped.setColumn(count.getAlias());
+                } else {
+                    mapped.setSqlOperator(reaggregate(aggregator.getSqlOperator(), exact));
+                    mapped.setColumn(measure);
+                }
+                aggregators.add(mapped);
+                columnNames.put(offset + aggregators.size() - 1, Shape.measureKey(aggregator.getSqlOperator(), aggregator.getColumn()));
+            }
+        }
+        List<FilterOperator> filters = new ArrayList<>();
+        if (executeParam.getFilters() != null) {
+            for (FilterOperator filter : executeParam.getFilters()) {
+                FilterOperator copy = new FilterOperator();
+                copy.setSqlOperator(filter.getSqlOperator());
+                if (filter.getAggOperator() == null) {
+                    copy.setColumn(filter.getColumn());
+                } else {
+                    copy.setAggOperator(reaggregate(filter.getAggOperator(), exact));
+                    copy.setColumn(rollup.measures.get(Shape.measureKey(filter.getAggOperator(), filter.getColumn())));
+                }
+                if (filter.getValues() != null) {
+                    copy.setValues(Arrays.stream(filter.getValues())
+                            .map(value -> new SingleTypedValue(value.getValue(), value.getValueType()))
+                            .toArray(SingleTypedValue[]::new));
+                }
+                filters.add(copy);
+            }
+        }
+        List<OrderOperator> orders = new ArrayList<>();
+        if (executeParam.getOrders() != null) {
+            for (OrderOperator order : executeParam.getOrders()) {
+                if (order.getAggOperator() == null) {
+                    orders.add(order);
+                } else {
+                    OrderOperator mapped = new OrderOperator();
+                    mapped.setOperator(order.getOperator());
+                    mapped.setAggOperator(reaggregate(order.getAggOperator(), exact));
+                    mapped.setColumn(rollup.measures.get(Shape.measureKey(order.getAggOperator(), order.getColumn())));
+                    orders.add(mapped);
+                }
+            }
+        }
+        ExecuteParam rollupParam = ExecuteParam.builder()
+                .columns(executeParam.getColumns())
+                .functionColumns(functionColumns)
+                .aggregators(aggregators)
+                .filters(filters)
+                .groups(executeParam.getGroups())
+                .orders(orders)
+                .pageInfo(executeParam.getPageInfo())
+                .build();
+        String sql = SqlBuilder.builder()
+                .withExecuteParam(rollupParam)
+                .withDialect(LocalDB.SQL_DIALECT)
+                .withBaseSql("SELECT * FROM " + quote(rollup.table))
+                .build();
+        log.debug("Local query answered by rollup {}", rollup.table);
+        return new Rewrite(sql, columnNames);
+    }
+
+    /**
+     * 登记查询的分组和聚合组合，达到出现次数后建立对应的预聚合表。建表失败不影响查询，也不再重试。
+     *
+     * @param queryScript 视图脚本，预聚合表由脚本渲染后的SQL建立
+     * @param connection  默认schema为已加载数据的连接
+     */
+    static void observe(LocalStore.Entry entry, QueryScript queryScript, ExecuteParam executeParam, Connection connection) {
+        if (!isEnabled()) {
+            return;
+        }
+        Shape shape = Shape.of(executeParam);
+        if (shape == null) {
+            return;
+        }
+        String key = shape.key();
+        synchronized (entry.rollups) {
+            for (Rollup rollup : entry.rollups.tables) {
+                if (rollup.covers(shape)) {
+                    return;
+                }
+            }
+            int hits = entry.rollups.hits.merge(key, 1, Integer::sum);
+            if (hits < ProviderConfig.getInt(MIN_HITS_KEY, DEFAULT_MIN_HITS)
+                    || entry.rollups.tables.size() >= ProviderConfig.getInt(MAX_TABLES_KEY, DEFAULT_MAX_TABLES)
+                    || !entry.rollups.attempted.add(key)) {
+                return;
+            }
+        }
+        Rollup rollup = new Rollup("R" + DigestUtils.md5Hex(key).substring(0, 16), shape.dims);
+        StringJoiner select = new StringJoiner(",");
+        StringJoiner groupBy = new StringJoiner(",");
+        for (String dim : shape.dims) {
+            select.add(quote(T) + "." + quote(dim) + " AS " + quote(dim));
+            groupBy.add(quote(T) + "." + quote(dim));
+        }
+        int i = 0;
+        for (Map.Entry<String, Measure> measure : shape.measures.entrySet()) {
+            String column = "M" + i++;
+            rollup.measures.put(measure.getKey(), column);
+            select.add(measure.getValue().sql() + " AS " + quote(column));
+        }
+        String sql = null;
+        try (Statement statement = connection.createStatement()) {
+            String scriptSql = new SqlScriptRender(queryScript, executeParam, LocalDB.SQL_DIALECT, Const.DEFAULT_VARIABLE_QUOTE)
+                    .render(false);
+            sql = "CREATE TABLE " + quote(rollup.table) + " AS SELECT " + select
+                    + " FROM (" + scriptSql + ") " + quote(T) + " GROUP BY " + groupBy;
+            statement.execute(sql);
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + quote(rollup.table))) {
+                rollup.rows = rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException | SqlParseException e) {
+            log.warn("Failed to build rollup " + rollup.table + ": " + sql, e);
+            return;
+        }
+        synchronized (entry.rollups) {
+            entry.rollups.tables.add(rollup);
+        }
+        log.info("Rollup {} built by {} with {} rows", rollup.table, shape.dims, rollup.rows);
+    }
+
+    private static AggregateOperator.SqlOperator reaggregate(AggregateOperator.SqlOperator op, boolean exact) {
+        switch (op) {
+            case SUM:
+            case COUNT:
+                return AggregateOperator.SqlOperator.SUM;
+            case MIN:
+                return AggregateOperator.SqlOperator.MIN;
+            case MAX:
+                return AggregateOperator.SqlOperator.MAX;
+            default:
+                // 分组完全相同时每组只有一行
+                if (!exact) {
+                    throw new IllegalStateException(op + " can not be re-aggregated");
+                }
+                return AggregateOperator.SqlOperator.MAX;
+        }
+    }
+
+    private static String quote(String identifier) {
+        return LocalDB.SQL_DIALECT.quoteIdentifier(identifier);
+    }
+
+    private static boolean isEnabled() {
+        return ProviderConfig.getBoolean(ENABLED_KEY, false);
+    }
+
+    private static class Rollup {
+
+        private final String table;
+
+        private final Set<String> dims;
+
+        /**
+         * 聚合方式到预聚合表中列名的映射
+         */
+        private final Map<String, String> measures = new LinkedHashMap<>();
+
+        private long rows;
+
+        private Rollup(String table, Set<String> dims) {
+            this.table = table;
+            this.dims = dims;
+        }
+
+        private boolean covers(Shape shape) {
+            if (!dims.containsAll(shape.dims) || !measures.keySet().containsAll(shape.measures.keySet())) {
+                return false;
+            }
+            if (dims.equals(shape.groups)) {
+                return true;
+            }
+            for (Measure measure : shape.measures.values()) {
+                if (!REAGGREGATABLE.contains(measure.op)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Measure {
+
+        private final AggregateOperator.SqlOperator op;
+
+        private final String column;
+
+        private Measure(AggregateOperator.SqlOperator op, String column) {
+            this.op = op;
+            this.column = column;
+        }
+
+        private String sql() {
+            String column = quote(T) + "." + quote(this.column);
+            if (op == AggregateOperator.SqlOperator.COUNT_DISTINCT) {
+                return "COUNT(DISTINCT " + column + ")";
+            }
+            return op.name() + "(" + column + ")";
+        }
+    }
+
+    /**
+     * 查询的分组列、筛选列和聚合方式。计算列、关键字、片段类型的值、没有分组或选择了非分组列的查询没有对应的组合。
+     */
+    private static class Shape {
+
+        private final Set<String> groups = new TreeSet<>();
+
+        private final Set<String> dims = new TreeSet<>();
+
+        private final Map<String, Measure> measures = new TreeMap<>();
+
+        private static String measureKey(AggregateOperator.SqlOperator op, String column) {
+            return op.name() + "(" + column + ")";
+        }
+
+        private String key() {
+            return dims + "|" + measures.keySet();
+        }
+
+        private boolean addMeasure(AggregateOperator.SqlOperator op, String column) {
+            if (StringUtils.isBlank(column) || "*".equals(column)) {
+                return false;
+            }
+            measures.put(measureKey(op, column), new Measure(op, column));
+            return true;
+        }
+
+        private static Shape of(ExecuteParam executeParam) {
+            if (!CollectionUtils.isEmpty(executeParam.getKeywords())
+                    || !CollectionUtils.isEmpty(executeParam.getFunctionColumns())
+                    || CollectionUtils.isEmpty(executeParam.getGroups())) {
+                return null;
+            }
+            Shape shape = new Shape();
+            for (GroupByOperator group : executeParam.getGroups()) {
+                if (StringUtils.isBlank(group.getColumn())) {
+                    return null;
+                }
+                shape.groups.add(group.getColumn());
+            }
+            shape.dims.addAll(shape.groups);
+            if (executeParam.getColumns() != null && !shape.groups.containsAll(executeParam.getColumns())) {
+                return null;
+            }
+            if (executeParam.getAggregators() != null) {
+                for (AggregateOperator aggregator : executeParam.getAggregators()) {
+                    if (aggregator.getSqlOperator() == null) {
+                        if (!shape.groups.contains(aggregator.getColumn())) {
+                            return null;
+                        }
+                    } else if (!shape.addMeasure(aggregator.getSqlOperator(), aggregator.getColumn())) {
+                        return null;
+                    }
+                }
+            }
+            if (executeParam.getFilters() != null) {
+                for (FilterOperator filter : executeParam.getFilters()) {
+                    if (filter.getValues() != null) {
+                        for (SingleTypedValue value : filter.getValues()) {
+                            if (value == null || value.getValueType() == ValueType.SNIPPET
+                                    || value.getValueType() == ValueType.FRAGMENT) {
+                                return null;
+                            }
+                        }
+                    }
+                    if (filter.getAggOperator() != null) {
+                        if (!shape.addMeasure(filter.getAggOperator(), filter.getColumn())) {
+                            return null;
+                        }
+                    } else if (StringUtils.isBlank(filter.getColumn())) {
+                        return null;
+                    } else {
+                        shape.dims.add(filter.getColumn());
+                    }
+                }
+            }
+            if (executeParam.getOrders() != null) {
+                for (OrderOperator order : executeParam.getOrders()) {
+                    if (order.getAggOperator() != null) {
+                        if (!shape.addMeasure(order.getAggOperator(), order.getColumn())) {
+                            return null;
+                        }
+                    } else if (!shape.groups.contains(order.getColumn())) {
+                        return null;
+                    }
+                }
+            }
+            return shape;
+        }
+    }
+
+}
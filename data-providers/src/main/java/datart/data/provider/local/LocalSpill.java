@@ -0,0 +1,187 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.local;
+
+import datart.core.common.Application;
+import datart.data.provider.base.DataProviderException;
+import datart.data.provider.base.ProviderConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 本地数据的落盘存储。加载的数据行数或估算大小超过阈值时，使用临时目录中独立的H2文件数据库代替内存数据库，
+ * 连接关闭时删除数据库文件。所有落盘数据的估算大小受 datart.data-provider.local-spill.max-disk-mb 限制。
+ * <p>
+ * Spill storage for local data. When the rows or the estimated size of the loaded data exceed a threshold, a
+ * dedicated H2 file database in a managed temp directory is used instead of an in-memory one, and its files are
+ * deleted when the connection is closed. The estimated size of all spilled data is capped by a disk quota.
+ */
+@Slf4j
+public class LocalSpill {
+
+    public static final String THRESHOLD_ROWS_KEY = "datart.data-provider.local-spill.threshold-rows";
+
+    public static final String THRESHOLD_SIZE_KEY = "datart.data-provider.local-spill.threshold-mb";
+
+    public static final String MAX_DISK_KEY = "datart.data-provider.local-spill.max-disk-mb";
+
+    private static final long DEFAULT_THRESHOLD_ROWS = 1_000_000;
+
+    private static final long DEFAULT_THRESHOLD_SIZE_MB = 256;
+
+    private static final long DEFAULT_MAX_DISK_MB = 10240;
+
+    private static final long MB = 1024 * 1024;
+
+    private static final String SPILL_DIR = "h2/spill";
+
+    private static final String URL_TEMPLATE = "jdbc:h2:file:%s/data;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final AtomicLong USED = new AtomicLong();
+
+    private static volatile Path directory;
+
+    /**
+     * 行数或估算大小超过阈值时需要落盘，阈值小于等于0时不检查该项
+     */
+    public static boolean exceedsThreshold(long rows, long size) {
+        long maxRows = ProviderConfig.getLong(THRESHOLD_ROWS_KEY, DEFAULT_THRESHOLD_ROWS);
+        long maxSize = ProviderConfig.getLong(THRESHOLD_SIZE_KEY, DEFAULT_THRESHOLD_SIZE_MB) * MB;
+        return (maxRows > 0 && rows > maxRows) || (maxSize > 0 && size > maxSize);
+    }
+
+    /**
+     * 是否开启了落盘，两个阈值都小于等于0时不落盘
+     */
+    public static boolean isEnabled() {
+        return ProviderConfig.getLong(THRESHOLD_ROWS_KEY, DEFAULT_THRESHOLD_ROWS) > 0
+                || ProviderConfig.getLong(THRESHOLD_SIZE_KEY, DEFAULT_THRESHOLD_SIZE_MB) > 0;
+    }
+
+    /**
+     * 创建一个落盘的本地数据库连接，连接关闭时删除数据库文件并归还占用的配额
+     *
+     * @param size 将要加载数据的估算大小（字节），大小事先未知的流式加载传0，不占用配额
+     */
+    public static Connection open(long size) throws SQLException {
+        long maxDisk = ProviderConfig.getLong(MAX_DISK_KEY, DEFAULT_MAX_DISK_MB) * MB;
+        long used = USED.addAndGet(size);
+        if (maxDisk > 0 && used > maxDisk) {
+            USED.addAndGet(-size);
+            throw new DataProviderException("Local spill quota exceeded: " + (used - size) / MB + "MB in use, "
+                    + size / MB + "MB requested, limit " + maxDisk / MB + "MB");
+        }
+        Path path = getDirectory().resolve("q" + SEQUENCE.incrementAndGet());
+        Connection connection;
+        try {
+            connection = DriverManager.getConnection(String.format(URL_TEMPLATE, path.toAbsolutePath()));
+        } catch (SQLException | RuntimeException e) {
+            cleanup(path, size);
+            throw e;
+        }
+        log.info("Local data of {}MB spilled to {}", size / MB, path);
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(LocalSpill.class.getClassLoader(), new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        // Connection.close()允许重复调用，配额与文件只能释放一次
+                        if (!closed.compareAndSet(false, true)) {
+                            return null;
+                        }
+                        try {
+                            connection.close();
+                        } finally {
+                            cleanup(path, size);
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public static long getUsedSize() {
+        return USED.get();
+    }
+
+    private static void cleanup(Path path, long size) {
+        USED.addAndGet(-size);
+        delete(path);
+    }
+
+    private static void delete(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete local spill file " + file, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to delete local spill directory " + path, e);
+        }
+    }
+
+    private static Path getDirectory() {
+        if (directory != null) {
+            return directory;
+        }
+        synchronized (LocalSpill.class) {
+            if (directory == null) {
+                String base = Application.getContext() == null
+                        ? StringUtils.appendIfMissing(System.getProperty("java.io.tmpdir"), "/") + "datart/"
+                        : Application.getFileBasePath();
+                Path path = Paths.get(base, SPILL_DIR);
+                // 重启前遗留的落盘文件已无法使用
+                delete(path);
+                try {
+                    Files.createDirectories(path);
+                } catch (IOException e) {
+                    throw new DataProviderException(e);
+                }
+                directory = path;
+            }
+        }
+        return directory;
+    }
+
+}
@@ -0,0 +1,391 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.local;
+
+import datart.data.provider.base.ProviderConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 共享的本地数据存储。加载过的数据保存在一个命名的H2数据库中，每次加载对应一个schema，并按查询Key登记，
+ * 相同Key的后续查询直接复用已加载的表。登记的数据按过期时间失效，总大小或数量超出限制时淘汰最久未使用的数据。
+ * <p>
+ * Shared local store. Loaded data is kept in a named H2 database, one schema per load, registered by query key so
+ * that repeated queries reuse the loaded tables. Entries expire after their TTL, and the least recently used ones are
+ * evicted when the total size or entry count exceeds the limits.
+ * <p>
+ * 查询中过滤和分组用到的列按数据登记，数据被再次使用时在使用最多的列上建立索引。
+ * <p>
+ * The columns hit by filters and groups are tracked per entry, and indexes are built on the most used ones when the
+ * entry is reused.
+ */
+@Slf4j
+public class LocalStore {
+
+    public static final String TYPE_KEY = "datart.data-provider.local-store.type";
+
+    public static final String TTL_KEY = "datart.data-provider.local-store.ttl-seconds";
+
+    public static final String MAX_SIZE_KEY = "datart.data-provider.local-store.max-size-mb";
+
+    public static final String MAX_ENTRIES_KEY = "datart.data-provider.local-store.max-entries";
+
+    public static final String MAX_INDEXES_KEY = "datart.data-provider.local-store.max-indexes";
+
+    private static final String MEM_URL = "jdbc:h2:mem:datart_local_store;DB_CLOSE_DELAY=-1";
+
+    private static final String TYPE_FILE = "file";
+
+    private static final int DEFAULT_TTL_SECONDS = 600;
+
+    private static final int DEFAULT_MAX_SIZE_MB = 512;
+
+    private static final int DEFAULT_MAX_ENTRIES = 100;
+
+    private static final int DEFAULT_MAX_INDEXES = 8;
+
+    private static final String COLUMNS_SQL = "SELECT TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = ?";
+
+    private static final long MB = 1024 * 1024;
+
+    private static final Map<String, Entry> ENTRIES = new HashMap<>();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static long totalSize;
+
+    private static volatile String url;
+
+    @FunctionalInterface
+    public interface Loader {
+        void load(Connection connection) throws Exception;
+    }
+
+    /**
+     * 获取Key对应的已加载数据，不存在或已过期时返回null。使用完后需要调用 {@link #release(Entry)}
+     */
+    public static synchronized Entry acquire(String key) {
+        Entry entry = ENTRIES.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireTime <= System.currentTimeMillis()) {
+            remove(entry);
+            return null;
+        }
+        entry.refs++;
+        entry.lastAccessTime = System.currentTimeMillis();
+        return entry;
+    }
+
+    /**
+     * 在新的schema中加载数据并登记到Key下，替换该Key已有的数据。返回的数据使用完后需要调用 {@link #release(Entry)}
+     *
+     * @param key      查询Key
+     * @param sourceId 数据所属的数据源，数据源变更时失效
+     * @param ttl      有效期（秒），小于等于0时使用全局配置
+     * @param size     数据的估算大小（字节）
+     * @param loader   向schema中建表并插入数据
+     */
+    public static Entry load(String key, String sourceId, long ttl, long size, Loader loader) throws Exception {
+        String schema = "S" + DigestUtils.md5Hex(key).substring(0, 16) + "_" + SEQUENCE.incrementAndGet();
+        try (Connection connection = DriverManager.getConnection(getUrl())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE SCHEMA \"" + schema + "\"");
+                statement.execute("SET SCHEMA \"" + schema + "\"");
+            }
+            loader.load(connection);
+        } catch (Exception e) {
+            dropSchema(schema);
+            throw e;
+        }
+        long expire = TimeUnit.SECONDS.toMillis(ttl > 0 ? ttl : ProviderConfig.getInt(TTL_KEY, DEFAULT_TTL_SECONDS));
+        Entry entry = new Entry(key, schema, sourceId, size, System.currentTimeMillis() + expire);
+        entry.refs++;
+        synchronized (LocalStore.class) {
+            Entry previous = ENTRIES.put(key, entry);
+            if (previous != null) {
+                totalSize -= previous.size;
+                previous.removed = true;
+                dropIfUnused(previous);
+            }
+            totalSize += size;
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * 共享存储是否保存在文件中，配置项 datart.data-provider.local-store.type 为 file 时使用文件数据库
+     */
+    public static boolean isFileBacked() {
+        return TYPE_FILE.equalsIgnoreCase(ProviderConfig.getString(TYPE_KEY));
+    }
+
+    /**
+     * 打开一个默认schema为已加载数据的连接
+     */
+    public static Connection getConnection(Entry entry) throws SQLException {
+        Connection connection = DriverManager.getConnection(getUrl());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SCHEMA \"" + entry.schema + "\"");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * 记录查询中过滤和分组用到的列
+     */
+    public static void track(Entry entry, Collection<String> columns) {
+        synchronized (entry) {
+            for (String column : columns) {
+                entry.columnHits.merge(column, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 记录用到的列，并在使用次数最多且尚未建立索引的列上建立索引，每份数据建立索引的列数不超过
+     * datart.data-provider.local-store.max-indexes。建立索引失败不影响查询。
+     *
+     * @param connection 默认schema为已加载数据的连接
+     */
+    public static void index(Entry entry, Collection<String> columns, Connection connection) {
+        List<String> candidates;
+        synchronized (entry) {
+            track(entry, columns);
+            int maxIndexes = ProviderConfig.getInt(MAX_INDEXES_KEY, DEFAULT_MAX_INDEXES);
+            if (maxIndexes <= entry.indexedColumns.size()) {
+                return;
+            }
+            candidates = entry.columnHits.entrySet().stream()
+                    .filter(hits -> !entry.indexedColumns.contains(hits.getKey()))
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .limit(maxIndexes - entry.indexedColumns.size())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            // 建立索引失败的列同样登记，避免每次查询重复尝试
+            entry.indexedColumns.addAll(candidates);
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, List<String[]>> tables = tablesByColumn(entry, connection);
+            List<String> unmatched = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                for (String column : candidates) {
+                    List<String[]> matched = matchColumn(tables, column);
+                    if (matched.isEmpty()) {
+                        unmatched.add(column);
+                        continue;
+                    }
+                    for (String[] tableColumn : matched) {
+                        String index = "I" + DigestUtils.md5Hex(tableColumn[0] + "." + tableColumn[1]).substring(0, 16);
+                        statement.execute("CREATE INDEX IF NOT EXISTS " + quote(index) + " ON "
+                                + quote(tableColumn[0]) + "(" + quote(tableColumn[1]) + ")");
+                        log.debug("Local store index {} created on {}.{}", index, tableColumn[0], tableColumn[1]);
+                    }
+                }
+            }
+            // 没有找到的列（如计算字段）不算已尝试，数据中出现该列后仍可建立索引
+            if (!unmatched.isEmpty()) {
+                synchronized (entry) {
+                    entry.indexedColumns.removeAll(unmatched);
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to create index on local store " + entry.key, e);
+        }
+    }
+
+    /**
+     * 按列名（不区分大小写）分组的表和列，H2 中未加引号创建的列名为大写
+     */
+    private static Map<String, List<String[]>> tablesByColumn(Entry entry, Connection connection) throws SQLException {
+        Map<String, List<String[]>> tables = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(COLUMNS_SQL)) {
+            statement.setString(1, entry.schema);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String[] tableColumn = new String[]{rs.getString(1), rs.getString(2)};
+                    tables.computeIfAbsent(tableColumn[1].toUpperCase(), column -> new ArrayList<>()).add(tableColumn);
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 同名的列优先精确匹配，没有时使用不区分大小写的匹配
+     */
+    private static List<String[]> matchColumn(Map<String, List<String[]>> tables, String column) {
+        List<String[]> candidates = tables.getOrDefault(column.toUpperCase(), new ArrayList<>());
+        List<String[]> exact = candidates.stream()
+                .filter(tableColumn -> tableColumn[1].equals(column))
+                .collect(Collectors.toList());
+        return exact.isEmpty() ? candidates : exact;
+    }
+
+    private static String quote(String identifier) {
+        return LocalDB.SQL_DIALECT.quoteIdentifier(identifier);
+    }
+
+    public static synchronized void release(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        entry.refs--;
+        dropIfUnused(entry);
+    }
+
+    /**
+     * 数据源变更后删除该数据源加载的所有数据
+     */
+    public static synchronized void invalidate(String sourceId) {
+        if (sourceId == null) {
+            return;
+        }
+        for (Entry entry : new ArrayList<>(ENTRIES.values())) {
+            if (sourceId.equals(entry.sourceId)) {
+                remove(entry);
+            }
+        }
+    }
+
+    private static void evict() {
+        long now = System.currentTimeMillis();
+        for (Entry entry : new ArrayList<>(ENTRIES.values())) {
+            if (entry.expireTime <= now) {
+                remove(entry);
+            }
+        }
+        long maxSize = ProviderConfig.getInt(MAX_SIZE_KEY, DEFAULT_MAX_SIZE_MB) * MB;
+        int maxEntries = ProviderConfig.getInt(MAX_ENTRIES_KEY, DEFAULT_MAX_ENTRIES);
+        if ((maxSize <= 0 || totalSize <= maxSize) && (maxEntries <= 0 || ENTRIES.size() <= maxEntries)) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(ENTRIES.values());
+        entries.sort(Comparator.comparingLong(e -> e.lastAccessTime));
+        for (Entry entry : entries) {
+            if ((maxSize <= 0 || totalSize <= maxSize) && (maxEntries <= 0 || ENTRIES.size() <= maxEntries)) {
+                break;
+            }
+            log.info("Local store entry {} evicted, {}MB in use", entry.key, totalSize / MB);
+            remove(entry);
+        }
+    }
+
+    private static void remove(Entry entry) {
+        if (ENTRIES.remove(entry.key, entry)) {
+            totalSize -= entry.size;
+        }
+        entry.removed = true;
+        dropIfUnused(entry);
+    }
+
+    private static void dropIfUnused(Entry entry) {
+        if (entry.removed && entry.refs <= 0) {
+            dropSchema(entry.schema);
+        }
+    }
+
+    private static void dropSchema(String schema) {
+        try (Connection connection = DriverManager.getConnection(getUrl());
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS \"" + schema + "\" CASCADE");
+        } catch (SQLException e) {
+            log.warn("Failed to drop local store schema " + schema, e);
+        }
+    }
+
+    private static String getUrl() throws SQLException {
+        if (url != null) {
+            return url;
+        }
+        synchronized (LocalStore.class) {
+            if (url == null) {
+                String storeUrl = isFileBacked() ? LocalDB.getFileUrl() : MEM_URL;
+                // 登记表只保存在内存中，重启后文件中遗留的数据无法再使用
+                try (Connection connection = DriverManager.getConnection(storeUrl);
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("DROP ALL OBJECTS");
+                }
+                url = storeUrl;
+            }
+        }
+        return url;
+    }
+
+    public static class Entry {
+
+        private final String key;
+
+        private final String schema;
+
+        private final String sourceId;
+
+        private final long size;
+
+        private final long expireTime;
+
+        private final Map<String, Integer> columnHits = new HashMap<>();
+
+        private final Set<String> indexedColumns = new HashSet<>();
+
+        final LocalRollup.Rollups rollups = new LocalRollup.Rollups();
+
+        private long lastAccessTime;
+
+        private int refs;
+
+        private boolean removed;
+
+        private Entry(String key, String schema, String sourceId, long size, long expireTime) {
+            this.key = key;
+            this.schema = schema;
+            this.sourceId = sourceId;
+            this.size = size;
+            this.expireTime = expireTime;
+            this.lastAccessTime = System.currentTimeMillis();
+        }
+    }
+
+}
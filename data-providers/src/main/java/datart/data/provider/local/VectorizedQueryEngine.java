@@ -0,0 +1,1080 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.local;
+
+import datart.core.base.PageInfo;
+import datart.core.base.consts.ValueType;
+import datart.core.data.provider.Column;
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.Dataframe;
+import datart.core.data.provider.ExecuteParam;
+import datart.core.data.provider.SingleTypedValue;
+import datart.core.data.provider.sql.AggregateOperator;
+import datart.core.data.provider.sql.FilterOperator;
+import datart.core.data.provider.sql.GroupByOperator;
+import datart.core.data.provider.sql.OrderOperator;
+import datart.core.data.provider.vector.ColumnVector;
+import datart.core.data.provider.vector.DoubleColumnVector;
+import datart.core.data.provider.vector.LongColumnVector;
+import datart.core.data.provider.vector.ObjectColumnVector;
+import datart.core.data.provider.vector.StringColumnVector;
+import datart.core.data.provider.vector.TimestampColumnVector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.CollectionUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 向量化的本地查询引擎。过滤、分组、聚合（SUM/AVG/MIN/MAX/COUNT/COUNT_DISTINCT）、排序和分页直接在列向量上执行，
+ * 数据按块划分后在多个核上并行进行哈希聚合再合并。结果与H2保持一致：数值为DOUBLE，计数为BIGINT，日期截断到天，
+ * 空值在升序时排在最前。计算列、关键字、片段类型的值以及日期列上的过滤等不支持的查询返回null，由H2执行。
+ * <p>
+ * Vectorized local query engine. Filters, group by, aggregations, order and paging are evaluated directly over the
+ * column vectors, and the rows are split into chunks that are hash aggregated in parallel and then merged. Results
+ * mirror H2: numbers as DOUBLE, counts as BIGINT, dates truncated to the day, nulls first in ascending order.
+ * Unsupported queries, such as function columns, keywords, snippet values or filters on date columns, return null so
+ * that H2 runs them.
+ */
+@Slf4j
+public class VectorizedQueryEngine implements LocalQueryEngine {
+
+    private static final int CHUNK_SIZE = 65536;
+
+    @Override
+    public Dataframe execute(ColumnarDataframe data, ExecuteParam executeParam, boolean withPage) {
+        try {
+            return new Plan(data, executeParam, withPage).execute();
+        } catch (UnsupportedQueryException e) {
+            log.debug("Local query is not supported by the vectorized engine: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static class UnsupportedQueryException extends RuntimeException {
+
+        private UnsupportedQueryException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static UnsupportedQueryException unsupported(String message) {
+        return new UnsupportedQueryException(message);
+    }
+
+    private static final class Plan {
+
+        private final ColumnarDataframe data;
+
+        private final ExecuteParam executeParam;
+
+        private final PageInfo pageInfo;
+
+        private final Map<String, Integer> columnIndex = new HashMap<>();
+
+        private final Map<String, Accessor> accessors = new HashMap<>();
+
+        private final List<RowFilter> rowFilters = new ArrayList<>();
+
+        private final List<AggFilter> aggFilters = new ArrayList<>();
+
+        private final List<Accessor> groups = new ArrayList<>();
+
+        private final List<AggSpec> aggSpecs = new ArrayList<>();
+
+        private final List<Output> outputs = new ArrayList<>();
+
+        private final List<OrderKey> orders = new ArrayList<>();
+
+        private boolean aggregated;
+
+        private Plan(ColumnarDataframe data, ExecuteParam executeParam, boolean withPage) {
+            this.data = data;
+            this.executeParam = executeParam;
+            if (withPage) {
+                pageInfo = executeParam.getPageInfo();
+                if (pageInfo == null || pageInfo.getPageSize() <= 0) {
+                    throw unsupported("page size");
+                }
+            } else {
+                pageInfo = null;
+            }
+            List<Column> columns = data.getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                columnIndex.putIfAbsent(columns.get(i).getName(), i);
+            }
+            if (!CollectionUtils.isEmpty(executeParam.getKeywords())) {
+                throw unsupported("keywords");
+            }
+            if (!CollectionUtils.isEmpty(executeParam.getFunctionColumns())) {
+                throw unsupported("function columns");
+            }
+            aggregated = !CollectionUtils.isEmpty(executeParam.getGroups());
+            if (executeParam.getAggregators() != null) {
+                for (AggregateOperator aggregator : executeParam.getAggregators()) {
+                    aggregated |= aggregator.getSqlOperator() != null;
+                }
+            }
+            if (executeParam.getFilters() != null) {
+                for (FilterOperator filter : executeParam.getFilters()) {
+                    aggregated |= filter.getAggOperator() != null;
+                }
+            }
+            planGroups();
+            planFilters();
+            planOutputs();
+            planOrders();
+        }
+
+        private void planGroups() {
+            if (executeParam.getGroups() == null) {
+                return;
+            }
+            for (GroupByOperator group : executeParam.getGroups()) {
+                groups.add(accessor(group.getColumn()));
+            }
+        }
+
+        private void planFilters() {
+            if (executeParam.getFilters() == null) {
+                return;
+            }
+            for (FilterOperator filter : executeParam.getFilters()) {
+                if (filter.getSqlOperator() == null) {
+                    throw unsupported("filter " + filter);
+                }
+                if (filter.getAggOperator() == null) {
+                    rowFilters.add(rowFilter(filter));
+                } else {
+                    AggSpec spec = aggSpec(filter.getAggOperator(), filter.getColumn());
+                    aggFilters.add(new AggFilter(aggSpecs.indexOf(spec), valueTest(filter, spec.resultType())));
+                }
+            }
+        }
+
+        private void planOutputs() {
+            if (executeParam.getColumns() != null) {
+                for (String column : executeParam.getColumns()) {
+                    outputs.add(columnOutput(column, column));
+                }
+            }
+            if (executeParam.getAggregators() != null) {
+                for (AggregateOperator aggregator : executeParam.getAggregators()) {
+                    if (aggregator.getSqlOperator() == null) {
+                        outputs.add(columnOutput(aggregator.getColumn(), aggregator.getColumn()));
+                    } else {
+                        AggSpec spec = aggSpec(aggregator.getSqlOperator(), aggregator.getColumn());
+                        outputs.add(new Output(aggregator.getSqlOperator().name() + "(" + aggregator.getColumn() + ")",
+                                spec.resultType(), null, -1, aggSpecs.indexOf(spec), spec.isCount()));
+                    }
+                }
+            }
+            for (int i = 0; i < groups.size(); i++) {
+                Accessor group = groups.get(i);
+                outputs.add(new Output(group.name, group.type, null, i, -1, false));
+            }
+            if (outputs.isEmpty()) {
+                if (aggregated) {
+                    throw unsupported("select all columns of an aggregated query");
+                }
+                for (Column column : data.getColumns()) {
+                    outputs.add(columnOutput(column.getName(), column.getName()));
+                }
+            }
+        }
+
+        private void planOrders() {
+            if (executeParam.getOrders() == null) {
+                return;
+            }
+            for (OrderOperator order : executeParam.getOrders()) {
+                boolean desc = order.getOperator() == OrderOperator.SqlOperator.DESC;
+                if (order.getAggOperator() != null) {
+                    if (!aggregated) {
+                        throw unsupported("aggregated order of a detail query");
+                    }
+                    AggSpec spec = aggSpec(order.getAggOperator(), order.getColumn());
+                    orders.add(new OrderKey(null, -1, aggSpecs.indexOf(spec), desc));
+                } else if (aggregated) {
+                    orders.add(new OrderKey(null, groupIndex(order.getColumn()), -1, desc));
+                } else {
+                    orders.add(new OrderKey(accessor(order.getColumn()), -1, -1, desc));
+                }
+            }
+        }
+
+        private Output columnOutput(String column, String name) {
+            if (aggregated) {
+                int group = groupIndex(column);
+                return new Output(name, groups.get(group).type, null, group, -1, false);
+            }
+            Accessor accessor = accessor(column);
+            return new Output(name, accessor.type, accessor, -1, -1, false);
+        }
+
+        private int groupIndex(String column) {
+            for (int i = 0; i < groups.size(); i++) {
+                if (groups.get(i).name.equals(column)) {
+                    return i;
+                }
+            }
+            throw unsupported("column " + column + " is not grouped");
+        }
+
+        private AggSpec aggSpec(AggregateOperator.SqlOperator op, String column) {
+            Accessor accessor = accessor(column);
+            if ((op == AggregateOperator.SqlOperator.SUM || op == AggregateOperator.SqlOperator.AVG)
+                    && accessor.type != ValueType.NUMERIC) {
+                throw unsupported(op + " of " + accessor.type);
+            }
+            AggSpec spec = new AggSpec(op, accessor);
+            int index = aggSpecs.indexOf(spec);
+            if (index >= 0) {
+                return aggSpecs.get(index);
+            }
+            aggSpecs.add(spec);
+            return spec;
+        }
+
+        private Accessor accessor(String column) {
+            Accessor accessor = accessors.get(column);
+            if (accessor != null) {
+                return accessor;
+            }
+            Integer index = column == null ? null : columnIndex.get(column);
+            if (index == null) {
+                throw unsupported("column " + column);
+            }
+            accessor = Accessor.create(column, data.getColumns().get(index).getType(), data.getVector(index));
+            accessors.put(column, accessor);
+            return accessor;
+        }
+
+        private RowFilter rowFilter(FilterOperator filter) {
+            Accessor accessor = accessor(filter.getColumn());
+            switch (filter.getSqlOperator()) {
+                case IS_NULL:
+                    return accessor::isNull;
+                case NOT_NULL:
+                    return row -> !accessor.isNull(row);
+                default:
+            }
+            if (accessor.type == ValueType.DATE) {
+                throw unsupported("filter on date column " + accessor.name);
+            }
+            if (accessor.numeric != null) {
+                RowFilter numeric = numericFilter(filter, accessor);
+                if (numeric != null) {
+                    return numeric;
+                }
+            }
+            ValueTest test = valueTest(filter, accessor.type);
+            return row -> {
+                Object value = accessor.get(row);
+                return value != null && test.test(value);
+            };
+        }
+
+        /**
+         * 数值列上的比较直接读取基本类型，避免装箱
+         */
+        private RowFilter numericFilter(FilterOperator filter, Accessor accessor) {
+            NumericReader reader = accessor.numeric;
+            ColumnVector vector = accessor.vector;
+            Object[] values = convertValues(filter, ValueType.NUMERIC);
+            switch (filter.getSqlOperator()) {
+                case EQ: {
+                    double v = (Double) values[0];
+                    return row -> !vector.isNull(row) && reader.read(row) == v;
+                }
+                case NE: {
+                    double v = (Double) values[0];
+                    return row -> !vector.isNull(row) && reader.read(row) != v;
+                }
+                case GT: {
+                    double v = (Double) values[0];
+                    return row -> !vector.isNull(row) && reader.read(row) > v;
+                }
+                case LT: {
+                    double v = (Double) values[0];
+                    return row -> !vector.isNull(row) && reader.read(row) < v;
+                }
+                case GTE: {
+                    double v = (Double) values[0];
+                    return row -> !vector.isNull(row) && reader.read(row) >= v;
+                }
+                case LTE: {
+                    double v = (Double) values[0];
+                    return row -> !vector.isNull(row) && reader.read(row) <= v;
+                }
+                case BETWEEN: {
+                    double low = (Double) values[0];
+                    double high = (Double) values[1];
+                    return row -> {
+                        if (vector.isNull(row)) {
+                            return false;
+                        }
+                        double d = reader.read(row);
+                        return d >= low && d <= high;
+                    };
+                }
+                case NOT_BETWEEN: {
+                    double low = (Double) values[0];
+                    double high = (Double) values[1];
+                    return row -> {
+                        if (vector.isNull(row)) {
+                            return false;
+                        }
+                        double d = reader.read(row);
+                        return d < low || d > high;
+                    };
+                }
+                default:
+                    return null;
+            }
+        }
+
+        private ValueTest valueTest(FilterOperator filter, ValueType type) {
+            switch (filter.getSqlOperator()) {
+                case IS_NULL:
+                    return value -> value == null;
+                case NOT_NULL:
+                    return value -> value != null;
+                default:
+            }
+            if (type != ValueType.NUMERIC && type != ValueType.STRING) {
+                throw unsupported("filter on " + type);
+            }
+            Object[] values = convertValues(filter, type);
+            switch (filter.getSqlOperator()) {
+                case EQ:
+                    return value -> value != null && compare(value, values[0]) == 0;
+                case NE:
+                    return value -> value != null && compare(value, values[0]) != 0;
+                case GT:
+                    return value -> value != null && compare(value, values[0]) > 0;
+                case LT:
+                    return value -> value != null && compare(value, values[0]) < 0;
+                case GTE:
+                    return value -> value != null && compare(value, values[0]) >= 0;
+                case LTE:
+                    return value -> value != null && compare(value, values[0]) <= 0;
+                case BETWEEN:
+                    return value -> value != null && compare(value, values[0]) >= 0 && compare(value, values[1]) <= 0;
+                case NOT_BETWEEN:
+                    return value -> value != null && (compare(value, values[0]) < 0 || compare(value, values[1]) > 0);
+                case IN: {
+                    Set<Object> set = new HashSet<>(Arrays.asList(values));
+                    return value -> value != null && set.contains(value);
+                }
+                case NOT_IN: {
+                    Set<Object> set = new HashSet<>(Arrays.asList(values));
+                    return value -> value != null && !set.contains(value);
+                }
+                case LIKE:
+                case NOT_LIKE:
+                case PREFIX_LIKE:
+                case PREFIX_NOT_LIKE:
+                case SUFFIX_LIKE:
+                case SUFFIX_NOT_LIKE:
+                    return likeTest(filter.getSqlOperator(), type, (String) values[0]);
+                default:
+                    throw unsupported("filter operator " + filter.getSqlOperator());
+            }
+        }
+
+        private ValueTest likeTest(FilterOperator.SqlOperator op, ValueType type, String value) {
+            if (type != ValueType.STRING) {
+                throw unsupported("like on " + type);
+            }
+            String pattern;
+            boolean not;
+            switch (op) {
+                case LIKE:
+                case NOT_LIKE:
+                    pattern = "%" + value + "%";
+                    not = op == FilterOperator.SqlOperator.NOT_LIKE;
+                    break;
+                case PREFIX_LIKE:
+                case PREFIX_NOT_LIKE:
+                    pattern = value + "%";
+                    not = op == FilterOperator.SqlOperator.PREFIX_NOT_LIKE;
+                    break;
+                default:
+                    pattern = "%" + value;
+                    not = op == FilterOperator.SqlOperator.SUFFIX_NOT_LIKE;
+            }
+            Pattern regex = likePattern(pattern);
+            return v -> v != null && regex.matcher((String) v).matches() != not;
+        }
+
+        private Object[] convertValues(FilterOperator filter, ValueType type) {
+            SingleTypedValue[] values = filter.getValues();
+            int required = filter.getSqlOperator() == FilterOperator.SqlOperator.BETWEEN
+                    || filter.getSqlOperator() == FilterOperator.SqlOperator.NOT_BETWEEN ? 2 : 1;
+            if (values == null || values.length < required) {
+                throw unsupported("filter values " + filter);
+            }
+            Object[] converted = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                SingleTypedValue value = values[i];
+                if (value == null || value.getValue() == null || value.getValueType() != type) {
+                    throw unsupported("filter value " + value);
+                }
+                if (type == ValueType.NUMERIC) {
+                    try {
+                        converted[i] = new BigDecimal(value.getValue().toString().trim()).doubleValue();
+                    } catch (NumberFormatException e) {
+                        throw unsupported("filter value " + value);
+                    }
+                } else {
+                    converted[i] = value.getValue().toString();
+                }
+            }
+            return converted;
+        }
+
+        private Dataframe execute() {
+            int rowCount = data.getRowCount();
+            int chunks = Math.max(1, (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            IntStream chunkStream = IntStream.range(0, chunks);
+            if (chunks > 1) {
+                chunkStream = chunkStream.parallel();
+            }
+            if (aggregated) {
+                List<Map<List<Object>, Accumulator[]>> partials = chunkStream
+                        .mapToObj(chunk -> aggregate(chunk * CHUNK_SIZE, Math.min(rowCount, (chunk + 1) * CHUNK_SIZE)))
+                        .collect(Collectors.toList());
+                return aggregatedResult(merge(partials));
+            }
+            List<int[]> selected = chunkStream
+                    .mapToObj(chunk -> select(chunk * CHUNK_SIZE, Math.min(rowCount, (chunk + 1) * CHUNK_SIZE)))
+                    .collect(Collectors.toList());
+            return detailResult(selected);
+        }
+
+        private boolean accept(int row) {
+            for (RowFilter filter : rowFilters) {
+                if (!filter.test(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int[] select(int from, int to) {
+            int[] rows = new int[to - from];
+            int count = 0;
+            for (int row = from; row < to; row++) {
+                if (accept(row)) {
+                    rows[count++] = row;
+                }
+            }
+            return Arrays.copyOf(rows, count);
+        }
+
+        private Map<List<Object>, Accumulator[]> aggregate(int from, int to) {
+            Map<List<Object>, Accumulator[]> groupMap = new LinkedHashMap<>();
+            for (int row = from; row < to; row++) {
+                if (!accept(row)) {
+                    continue;
+                }
+                Object[] key = new Object[groups.size()];
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = groups.get(i).get(row);
+                }
+                Accumulator[] accumulators = groupMap.computeIfAbsent(Arrays.asList(key), k -> newAccumulators());
+                for (int i = 0; i < accumulators.length; i++) {
+                    accumulators[i].add(row);
+                }
+            }
+            return groupMap;
+        }
+
+        private Accumulator[] newAccumulators() {
+            Accumulator[] accumulators = new Accumulator[aggSpecs.size()];
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = aggSpecs.get(i).newAccumulator();
+            }
+            return accumulators;
+        }
+
+        private Map<List<Object>, Accumulator[]> merge(List<Map<List<Object>, Accumulator[]>> partials) {
+            Map<List<Object>, Accumulator[]> merged = partials.get(0);
+            for (int p = 1; p < partials.size(); p++) {
+                for (Map.Entry<List<Object>, Accumulator[]> entry : partials.get(p).entrySet()) {
+                    Accumulator[] accumulators = merged.get(entry.getKey());
+                    if (accumulators == null) {
+                        merged.put(entry.getKey(), entry.getValue());
+                    } else {
+                        for (int i = 0; i < accumulators.length; i++) {
+                            accumulators[i].merge(entry.getValue()[i]);
+                        }
+                    }
+                }
+            }
+            // 没有分组时即使没有数据也返回一行
+            if (merged.isEmpty() && groups.isEmpty()) {
+                merged.put(Collections.emptyList(), newAccumulators());
+            }
+            return merged;
+        }
+
+        private Dataframe aggregatedResult(Map<List<Object>, Accumulator[]> groupMap) {
+            List<Object[]> results = new ArrayList<>(groupMap.size());
+            for (Map.Entry<List<Object>, Accumulator[]> entry : groupMap.entrySet()) {
+                Accumulator[] accumulators = entry.getValue();
+                Object[] aggValues = new Object[accumulators.length];
+                for (int i = 0; i < accumulators.length; i++) {
+                    aggValues[i] = accumulators[i].result();
+                }
+                boolean accepted = true;
+                for (AggFilter filter : aggFilters) {
+                    Object value = aggValues[filter.agg];
+                    if (value instanceof Long) {
+                        value = ((Long) value).doubleValue();
+                    }
+                    if (!filter.test.test(value)) {
+                        accepted = false;
+                        break;
+                    }
+                }
+                if (accepted) {
+                    results.add(new Object[]{entry.getKey(), aggValues});
+                }
+            }
+            if (!orders.isEmpty()) {
+                results.sort(comparator((result, key) -> key.agg >= 0
+                        ? ((Object[]) result[1])[key.agg]
+                        : ((List<?>) result[0]).get(key.group)));
+            }
+            int[] range = page(results.size());
+            ColumnVector[] vectors = newVectors(range[1] - range[0]);
+            for (int r = range[0]; r < range[1]; r++) {
+                List<?> key = (List<?>) results.get(r)[0];
+                Object[] aggValues = (Object[]) results.get(r)[1];
+                for (int i = 0; i < outputs.size(); i++) {
+                    Output output = outputs.get(i);
+                    append(vectors[i], output.agg >= 0 ? aggValues[output.agg] : key.get(output.group), output.type);
+                }
+            }
+            return toDataframe(vectors);
+        }
+
+        private Dataframe detailResult(List<int[]> selected) {
+            int total = 0;
+            for (int[] rows : selected) {
+                total += rows.length;
+            }
+            int[] rows = new int[total];
+            int position = 0;
+            for (int[] chunk : selected) {
+                System.arraycopy(chunk, 0, rows, position, chunk.length);
+                position += chunk.length;
+            }
+            if (!orders.isEmpty()) {
+                Integer[] boxed = new Integer[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    boxed[i] = rows[i];
+                }
+                Arrays.sort(boxed, comparator((row, key) -> key.accessor.get(row)));
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = boxed[i];
+                }
+            }
+            int[] range = page(rows.length);
+            ColumnVector[] vectors = newVectors(range[1] - range[0]);
+            for (int r = range[0]; r < range[1]; r++) {
+                for (int i = 0; i < outputs.size(); i++) {
+                    Output output = outputs.get(i);
+                    append(vectors[i], output.accessor.get(rows[r]), output.type);
+                }
+            }
+            return toDataframe(vectors);
+        }
+
+        /**
+         * 按排序键比较，空值在升序时排在最前，降序时排在最后
+         */
+        private <T> Comparator<T> comparator(OrderValue<T> values) {
+            return (a, b) -> {
+                for (OrderKey key : orders) {
+                    int c = compareNullsLow(values.get(a, key), values.get(b, key));
+                    if (c != 0) {
+                        return key.desc ? -c : c;
+                    }
+                }
+                return 0;
+            };
+        }
+
+        /**
+         * 与H2的分页方式一致：第一页时统计总行数，之后的页按传入的总行数截取
+         */
+        private int[] page(int rows) {
+            if (pageInfo == null) {
+                return new int[]{0, rows};
+            }
+            if (pageInfo.getPageNo() <= 1) {
+                pageInfo.setTotal(rows);
+                pageInfo.setPageNo(1);
+            }
+            long from = Math.max(0, Math.min(pageInfo.getTotal(), (pageInfo.getPageNo() - 1) * pageInfo.getPageSize()));
+            from = Math.min(from, rows);
+            long to = Math.min(rows, from + pageInfo.getPageSize());
+            return new int[]{(int) from, (int) to};
+        }
+
+        private ColumnVector[] newVectors(int capacity) {
+            ColumnVector[] vectors = new ColumnVector[outputs.size()];
+            for (int i = 0; i < vectors.length; i++) {
+                Output output = outputs.get(i);
+                int size = Math.max(capacity, 1);
+                if (output.count) {
+                    vectors[i] = new LongColumnVector(size);
+                } else if (output.type == ValueType.NUMERIC) {
+                    vectors[i] = new DoubleColumnVector(size);
+                } else if (output.type == ValueType.STRING) {
+                    vectors[i] = new StringColumnVector(size);
+                } else {
+                    vectors[i] = new ObjectColumnVector(size);
+                }
+            }
+            return vectors;
+        }
+
+        private void append(ColumnVector vector, Object value, ValueType type) {
+            if (value != null && type == ValueType.DATE) {
+                value = java.sql.Date.valueOf(LocalDate.ofEpochDay((Long) value));
+            }
+            vector.append(value);
+        }
+
+        private Dataframe toDataframe(ColumnVector[] vectors) {
+            List<Column> columns = new ArrayList<>(outputs.size());
+            for (Output output : outputs) {
+                columns.add(new Column(output.name, output.type));
+            }
+            ColumnarDataframe dataframe = new ColumnarDataframe(columns, Arrays.asList(vectors));
+            dataframe.trim();
+            dataframe.setPageInfo(pageInfo);
+            return dataframe;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object a, Object b) {
+        if (a instanceof Double && b instanceof Double) {
+            double x = (Double) a;
+            double y = (Double) b;
+            return x < y ? -1 : (x > y ? 1 : 0);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static int compareNullsLow(Object a, Object b) {
+        if (a == null) {
+            return b == null ? 0 : -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+        return compare(a, b);
+    }
+
+    /**
+     * 将LIKE模式转换为正则表达式，% 匹配任意字符串，_ 匹配单个字符，\ 为转义字符
+     */
+    static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '\\' && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    @FunctionalInterface
+    private interface RowFilter {
+        boolean test(int row);
+    }
+
+    @FunctionalInterface
+    private interface ValueTest {
+        boolean test(Object value);
+    }
+
+    @FunctionalInterface
+    private interface NumericReader {
+        double read(int row);
+    }
+
+    @FunctionalInterface
+    private interface OrderValue<T> {
+        Object get(T item, OrderKey key);
+    }
+
+    /**
+     * 按列类型读取规范化后的值：数值为Double，字符串为String，日期为自1970-01-01起的天数
+     */
+    private static final class Accessor {
+
+        private final String name;
+
+        private final ValueType type;
+
+        private final ColumnVector vector;
+
+        private final NumericReader numeric;
+
+        private Accessor(String name, ValueType type, ColumnVector vector, NumericReader numeric) {
+            this.name = name;
+            this.type = type;
+            this.vector = vector;
+            this.numeric = numeric;
+        }
+
+        private static Accessor create(String name, ValueType type, ColumnVector vector) {
+            if (type == null) {
+                throw unsupported("column type of " + name);
+            }
+            switch (type) {
+                case NUMERIC:
+                    if (vector instanceof LongColumnVector) {
+                        LongColumnVector longs = (LongColumnVector) vector;
+                        return new Accessor(name, type, vector, longs::getLong);
+                    }
+                    if (vector instanceof DoubleColumnVector) {
+                        return new Accessor(name, type, vector, ((DoubleColumnVector) vector)::getDouble);
+                    }
+                    break;
+                case STRING:
+                    return new Accessor(name, type, vector, null);
+                case DATE:
+                    if (vector instanceof TimestampColumnVector) {
+                        return new Accessor(name, type, vector, null);
+                    }
+                    break;
+                default:
+            }
+            throw unsupported("column " + name + " of " + type + " in " + vector.getClass().getSimpleName());
+        }
+
+        private boolean isNull(int row) {
+            return vector.isNull(row);
+        }
+
+        private Object get(int row) {
+            if (vector.isNull(row)) {
+                return null;
+            }
+            switch (type) {
+                case NUMERIC:
+                    return numeric.read(row);
+                case DATE:
+                    return Instant.ofEpochMilli(((TimestampColumnVector) vector).getMillis(row))
+                            .atZone(ZoneId.systemDefault())
+                            .toLocalDate()
+                            .toEpochDay();
+                default:
+                    return vector.get(row).toString();
+            }
+        }
+    }
+
+    private static final class AggSpec {
+
+        private final AggregateOperator.SqlOperator op;
+
+        private final Accessor accessor;
+
+        private AggSpec(AggregateOperator.SqlOperator op, Accessor accessor) {
+            this.op = op;
+            this.accessor = accessor;
+        }
+
+        private boolean isCount() {
+            return op == AggregateOperator.SqlOperator.COUNT || op == AggregateOperator.SqlOperator.COUNT_DISTINCT;
+        }
+
+        private ValueType resultType() {
+            switch (op) {
+                case MIN:
+                case MAX:
+                    return accessor.type;
+                default:
+                    return ValueType.NUMERIC;
+            }
+        }
+
+        private Accumulator newAccumulator() {
+            switch (op) {
+                case COUNT:
+                    return new CountAccumulator(accessor);
+                case COUNT_DISTINCT:
+                    return new DistinctAccumulator(accessor);
+                case SUM:
+                    return new SumAccumulator(accessor, false);
+                case AVG:
+                    return new SumAccumulator(accessor, true);
+                case MIN:
+                    return new ExtremeAccumulator(accessor, false);
+                default:
+                    return new ExtremeAccumulator(accessor, true);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AggSpec)) {
+                return false;
+            }
+            AggSpec other = (AggSpec) o;
+            return op == other.op && accessor == other.accessor;
+        }
+
+        @Override
+        public int hashCode() {
+            return op.hashCode() * 31 + accessor.name.hashCode();
+        }
+    }
+
+    private static final class AggFilter {
+
+        private final int agg;
+
+        private final ValueTest test;
+
+        private AggFilter(int agg, ValueTest test) {
+            this.agg = agg;
+            this.test = test;
+        }
+    }
+
+    private static final class Output {
+
+        private final String name;
+
+        private final ValueType type;
+
+        private final Accessor accessor;
+
+        private final int group;
+
+        private final int agg;
+
+        private final boolean count;
+
+        private Output(String name, ValueType type, Accessor accessor, int group, int agg, boolean count) {
+            this.name = name;
+            this.type = type;
+            this.accessor = accessor;
+            this.group = group;
+            this.agg = agg;
+            this.count = count;
+        }
+    }
+
+    private static final class OrderKey {
+
+        private final Accessor accessor;
+
+        private final int group;
+
+        private final int agg;
+
+        private final boolean desc;
+
+        private OrderKey(Accessor accessor, int group, int agg, boolean desc) {
+            this.accessor = accessor;
+            this.group = group;
+            this.agg = agg;
+            this.desc = desc;
+        }
+    }
+
+    private abstract static class Accumulator {
+
+        protected final Accessor accessor;
+
+        protected Accumulator(Accessor accessor) {
+            this.accessor = accessor;
+        }
+
+        abstract void add(int row);
+
+        abstract void merge(Accumulator other);
+
+        abstract Object result();
+    }
+
+    private static final class CountAccumulator extends Accumulator {
+
+        private long count;
+
+        private CountAccumulator(Accessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        void add(int row) {
+            if (!accessor.isNull(row)) {
+                count++;
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            count += ((CountAccumulator) other).count;
+        }
+
+        @Override
+        Object result() {
+            return count;
+        }
+    }
+
+    private static final class DistinctAccumulator extends Accumulator {
+
+        private final Set<Object> values = new HashSet<>();
+
+        private DistinctAccumulator(Accessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        void add(int row) {
+            Object value = accessor.get(row);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            values.addAll(((DistinctAccumulator) other).values);
+        }
+
+        @Override
+        Object result() {
+            return (long) values.size();
+        }
+    }
+
+    private static final class SumAccumulator extends Accumulator {
+
+        private final boolean average;
+
+        private double sum;
+
+        private long count;
+
+        private SumAccumulator(Accessor accessor, boolean average) {
+            super(accessor);
+            this.average = average;
+        }
+
+        @Override
+        void add(int row) {
+            if (!accessor.isNull(row)) {
+                sum += accessor.numeric.read(row);
+                count++;
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            sum += ((SumAccumulator) other).sum;
+            count += ((SumAccumulator) other).count;
+        }
+
+        @Override
+        Object result() {
+            if (count == 0) {
+                return null;
+            }
+            return average ? sum / count : sum;
+        }
+    }
+
+    private static final class ExtremeAccumulator extends Accumulator {
+
+        private final boolean max;
+
+        private Object value;
+
+        private ExtremeAccumulator(Accessor accessor, boolean max) {
+            super(accessor);
+            this.max = max;
+        }
+
+        @Override
+        void add(int row) {
+            offer(accessor.get(row));
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            offer(((ExtremeAccumulator) other).value);
+        }
+
+        private void offer(Object candidate) {
+            if (candidate == null) {
+                return;
+            }
+            if (value == null) {
+                value = candidate;
+                return;
+            }
+            int c = compare(candidate, value);
+            if (max ? c > 0 : c < 0) {
+                value = candidate;
+            }
+        }
+
+        @Override
+        Object result() {
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.data.provider.optimize;
+
+import datart.core.base.PageInfo;
+import datart.core.data.provider.ColumnarDataframe;
+import datart.core.data.provider.Dataframe;
+import datart.data.provider.base.DataProviderException;
+import datart.data.provider.base.MemoryBudget;
+import datart.data.provider.base.ProviderConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.collections4.map.LRUMap;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 短期保存的查询结果游标。开启缓存的分页查询第一次执行时将完整结果保存在服务端，在有效期内的后续分页直接从结果中截取，
+ * 不再查询数据库。默认关闭，通过 datart.data-provider.result-cursor.ttl-seconds 配置有效期（小于等于0时关闭），
+ * 有效期从保存时开始计算，不随访问延长；datart.data-provider.result-cursor.max-rows 配置可保存的最大行数，
+ * 超出时仍按原有方式分页。保存的结果在被淘汰前一直占用内存预算，预算不足时不保存。
+ * <p>
+ * Short-lived registry of materialized query results keyed by query fingerprint, off by default. Later pages of a
+ * cached query are sliced from the registered result until it expires, without another round trip to the database.
+ * The expiry is fixed at registration, and registered results stay charged to the {@link MemoryBudget} until they
+ * are evicted.
+ */
+@Slf4j
+public class ResultCursorRegistry {
+
+    public static final String TTL_KEY = "datart.data-provider.result-cursor.ttl-seconds";
+
+    public static final String MAX_ROWS_KEY = "datart.data-provider.result-cursor.max-rows";
+
+    private static final long DEFAULT_TTL_SECONDS = 0;
+
+    private static final int DEFAULT_MAX_ROWS = 10_000;
+
+    private static final int MAX_CURSORS = 32;
+
+    private static final Map<String, ResultCursor> CURSORS = Collections.synchronizedMap(new LRUMap<String, ResultCursor>(MAX_CURSORS) {
+        @Override
+        protected boolean removeLRU(LinkEntry<String, ResultCursor> entry) {
+            entry.getValue().release();
+            return true;
+        }
+    });
+
+    private static volatile Long ttlMillis;
+
+    private static volatile Integer maxRows;
+
+    public static String fingerprint(String... parts) {
+        return DigestUtils.sha256Hex(String.join("\u0001", parts));
+    }
+
+    public static boolean isEnabled() {
+        return getTtlMillis() > 0;
+    }
+
+    public static int getMaxRows() {
+        if (maxRows == null) {
+            maxRows = ProviderConfig.getInt(MAX_ROWS_KEY, DEFAULT_MAX_ROWS);
+        }
+        return maxRows;
+    }
+
+    /**
+     * 获取未过期的结果
+     * <p>
+     * Get a registered result that has not expired yet.
+     */
+    public static ColumnarDataframe get(String key) {
+        ResultCursor cursor = CURSORS.get(key);
+        if (cursor == null) {
+            return null;
+        }
+        if (cursor.expireAt < System.currentTimeMillis()) {
+            invalidate(key);
+            return null;
+        }
+        return cursor.data;
+    }
+
+    /**
+     * 保存结果并占用内存预算，超出预算时不保存
+     *
+     * @return 是否已保存
+     */
+    public static boolean register(String key, ColumnarDataframe data) {
+        evictExpired();
+        MemoryBudget budget = MemoryBudget.open();
+        try {
+            budget.update(data.estimatedSize());
+        } catch (DataProviderException e) {
+            log.debug("Result of {} is not kept: {}", key, e.getMessage());
+            return false;
+        }
+        ResultCursor previous = CURSORS.put(key, new ResultCursor(data, budget, System.currentTimeMillis() + getTtlMillis()));
+        if (previous != null) {
+            previous.release();
+        }
+        return true;
+    }
+
+    public static void invalidate(String key) {
+        ResultCursor cursor = CURSORS.remove(key);
+        if (cursor != null) {
+            cursor.release();
+        }
+    }
+
+    /**
+     * 从完整结果中截取 pageInfo 指定的页，并更新总行数
+     * <p>
+     * Slice the requested page out of a full result and fill in the total row count.
+     */
+    public static Dataframe page(ColumnarDataframe data, PageInfo pageInfo) {
+        int total = data.getRowCount();
+        pageInfo.setTotal(total);
+        if (pageInfo.getPageNo() < 1) {
+            pageInfo.setPageNo(1);
+        }
+        int from = 0;
+        int to = total;
+        if (pageInfo.getPageSize() > 0) {
+            from = (int) Math.min(total, (pageInfo.getPageNo() - 1) * pageInfo.getPageSize());
+            to = (int) Math.min(total, from + pageInfo.getPageSize());
+        }
+        ColumnarDataframe page = data.slice(from, to);
+        page.setPageInfo(pageInfo);
+        return page;
+    }
+
+    private static void evictExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (CURSORS) {
+            CURSORS.values().removeIf(cursor -> {
+                if (cursor.expireAt < now) {
+                    cursor.release();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    private static long getTtlMillis() {
+        if (ttlMillis == null) {
+            ttlMillis = ProviderConfig.getLong(TTL_KEY, DEFAULT_TTL_SECONDS) * 1000;
+        }
+        return ttlMillis;
+    }
+
+    private static class ResultCursor {
+
+        private final ColumnarDataframe data;
+
+        private final MemoryBudget budget;
+
+        private final long expireAt;
+
+        private ResultCursor(ColumnarDataframe data, MemoryBudget budget, long expireAt) {
+            this.data = data;
+            this.budget = budget;
+            this.expireAt = expireAt;
+        }
+
+        private synchronized void release() {
+            budget.close();
+        }
+    }
+
+}
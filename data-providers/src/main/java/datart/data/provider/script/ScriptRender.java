@@ -54,10 +54,15 @@ public class ScriptRender {
     }
 
     protected String buildWithExecuteParam(String script, SqlDialect sqlDialect) throws SqlParseException {
+        return buildWithExecuteParam(script, sqlDialect, false);
+    }
+
+    protected String buildWithExecuteParam(String script, SqlDialect sqlDialect, boolean withPage) throws SqlParseException {
         return SqlBuilder.builder()
                 .withExecuteParam(executeParam)
                 .withDialect(sqlDialect)
                 .withBaseSql(script)
+                .withPage(withPage)
                 .build();
     }
 
@@ -3,7 +3,6 @@ package datart.data.provider.script;
 import datart.core.data.provider.ScriptVariable;
 import datart.data.provider.base.DataProviderException;
 import datart.data.provider.calcite.SqlNodeUtils;
-import datart.data.provider.calcite.custom.SqlSimpleStringLiteral;
 import org.apache.calcite.sql.*;
 import org.apache.calcite.sql.fun.SqlLikeOperator;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
@@ -71,7 +70,7 @@ public abstract class VariablePlaceholder {
                     operandList = variable.getValues().stream().map(val -> {
                         ArrayList<SqlNode> operands = new ArrayList<>();
                         operands.add(sqlCall.getOperandList().get(0));
-                        operands.add(new SqlSimpleStringLiteral(val));
+                        operands.add(SqlNodeUtils.createStringLiteral(val));
                         return SqlNodeUtils
                                 .createSqlBasicCall(SqlStdOperatorTable.NOT_LIKE, operands);
                     }).collect(Collectors.toList());
@@ -81,7 +80,7 @@ public abstract class VariablePlaceholder {
                     operandList = variable.getValues().stream().map(val -> {
                         ArrayList<SqlNode> operands = new ArrayList<>();
                         operands.add(sqlCall.getOperandList().get(0));
-                        operands.add(new SqlSimpleStringLiteral(val));
+                        operands.add(SqlNodeUtils.createStringLiteral(val));
                         return SqlNodeUtils
                                 .createSqlBasicCall(SqlStdOperatorTable.LIKE, operands);
                     }).collect(Collectors.toList());
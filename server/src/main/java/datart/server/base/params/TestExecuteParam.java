@@ -34,4 +34,6 @@ public class TestExecuteParam {
 
     private int size = 100;
 
+    private String queryId;
+
 }
\ No newline at end of file
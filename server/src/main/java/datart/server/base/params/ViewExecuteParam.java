@@ -64,6 +64,16 @@ public class ViewExecuteParam {
 
     private boolean script;
 
+    /**
+     * 客户端生成的查询ID，用于取消查询，只在当前用户范围内唯一；为空时由服务端生成
+     */
+    private String queryId;
+
+    /**
+     * 查询超时时间（秒），只能缩短视图、数据源或全局配置的超时时间，小于等于0时忽略
+     */
+    private int queryTimeout;
+
     public boolean isEmpty() {
         return CollectionUtils.isEmpty(columns)
                 && CollectionUtils.isEmpty(keywords)
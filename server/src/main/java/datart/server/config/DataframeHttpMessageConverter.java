@@ -0,0 +1,150 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.server.config;
+
+import datart.core.data.provider.Dataframe;
+import datart.core.data.provider.vector.DataframeCodec;
+import datart.server.base.dto.ResponseData;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 查询结果的列式二进制响应。客户端在Accept中声明 application/x-datart-dataframe 时，成功的查询结果以二进制信封返回：
+ * 信封中包含 success、errCode、message，之后是 {@link DataframeCodec} 编码的数据。失败的响应和非查询结果的响应
+ * 以及包含编码不支持的值的数据仍以JSON返回，Content-Type 为 application/json。
+ * <p>
+ * Writes successful {@code ResponseData<Dataframe>} results in a binary envelope when the client accepts
+ * {@value #MEDIA_TYPE_VALUE}: MAGIC(4) VERSION(1) SUCCESS(1) ERR_CODE(4) MESSAGE, followed by the dataframe in the
+ * format of {@link DataframeCodec}. MESSAGE is a 4 byte length (-1 for null) plus UTF-8 bytes. Failed responses,
+ * including those of the exception handlers, responses without a dataframe and dataframes holding values the codec
+ * does not support are written as JSON.
+ */
+public class DataframeHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-datart-dataframe";
+
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    public static final byte[] MAGIC = {'D', 'T', 'R', 'E'};
+
+    public static final byte VERSION = 1;
+
+    private final GenericHttpMessageConverter<Object> jsonConverter;
+
+    public DataframeHttpMessageConverter(GenericHttpMessageConverter<Object> jsonConverter) {
+        super(MEDIA_TYPE);
+        this.jsonConverter = jsonConverter;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Dataframe.class.isAssignableFrom(clazz) || ResponseData.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolvableType = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        Class<?> rawClass = resolvableType.resolve(clazz);
+        if (rawClass == null) {
+            return false;
+        }
+        if (Dataframe.class.isAssignableFrom(rawClass)) {
+            return true;
+        }
+        if (ResponseData.class.isAssignableFrom(rawClass)) {
+            // ResponseData<String> 是异常处理返回的类型，以JSON写出
+            Class<?> dataClass = resolvableType.as(ResponseData.class).getGeneric(0).resolve();
+            return dataClass != null && (Dataframe.class.isAssignableFrom(dataClass) || String.class.equals(dataClass));
+        }
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object o, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        if (o instanceof ResponseData) {
+            ResponseData<?> response = (ResponseData<?>) o;
+            if (!response.isSuccess() || (response.getData() != null && !(response.getData() instanceof Dataframe))) {
+                writeJson(o, type, outputMessage);
+                return;
+            }
+            writeEnvelope(o, type, outputMessage, response.isSuccess(), response.getErrCode(), response.getMessage(), (Dataframe) response.getData());
+        } else {
+            writeEnvelope(o, type, outputMessage, true, 0, null, (Dataframe) o);
+        }
+    }
+
+    private void writeEnvelope(Object o, Type type, HttpOutputMessage outputMessage, boolean success, int errCode, String message, Dataframe dataframe) throws IOException {
+        byte[] encoded;
+        try {
+            encoded = DataframeCodec.encode(dataframe == null ? Dataframe.empty() : dataframe);
+        } catch (DataframeCodec.UnsupportedValueException e) {
+            // 包含无法编码的值时以JSON返回
+            writeJson(o, type, outputMessage);
+            return;
+        }
+        DataOutputStream out = new DataOutputStream(outputMessage.getBody());
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeBoolean(success);
+        out.writeInt(errCode);
+        if (message == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.write(encoded);
+        out.flush();
+    }
+
+    private void writeJson(Object o, Type type, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        jsonConverter.write(o, type, MediaType.APPLICATION_JSON, outputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Reading " + MEDIA_TYPE_VALUE + " is not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Reading " + MEDIA_TYPE_VALUE + " is not supported", inputMessage);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Datart
+ * <p>
+ * Copyright 2021
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package datart.server.config;
+
+import datart.core.data.provider.Dataframe;
+import datart.core.data.provider.vector.DataframeCodec;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 缓存值序列化。Dataframe使用列式二进制编码，其它对象仍使用JDK序列化。
+ * <p>
+ * Redis value serializer. Dataframes are written with {@link DataframeCodec}, everything else falls back to JDK
+ * serialization, as do dataframes holding values the codec does not support. Values are told apart by the codec magic header on read.
+ */
+public class DataframeRedisSerializer implements RedisSerializer<Object> {
+
+    private final JdkSerializationRedisSerializer fallback = new JdkSerializationRedisSerializer();
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof Dataframe) {
+            try {
+                return DataframeCodec.encode((Dataframe) value);
+            } catch (DataframeCodec.UnsupportedValueException e) {
+                // 包含驱动特有类型等无法编码的值时整体使用JDK序列化，保证取出的值与原值一致
+                return fallback.serialize(value);
+            } catch (Exception e) {
+                throw new SerializationException("Cannot serialize dataframe", e);
+            }
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (DataframeCodec.isEncoded(bytes)) {
+            try {
+                return DataframeCodec.decode(bytes);
+            } catch (Exception e) {
+                throw new SerializationException("Cannot deserialize dataframe", e);
+            }
+        }
+        return fallback.deserialize(bytes);
+    }
+}
@@ -20,6 +20,8 @@ package datart.server.controller;
 
 
 import datart.core.data.provider.*;
+import datart.data.provider.base.GovernorStatistics;
+import datart.data.provider.base.RunningQuery;
 import datart.server.base.dto.ResponseData;
 import datart.server.base.params.ViewExecuteParam;
 import datart.server.base.params.TestExecuteParam;
@@ -71,12 +73,24 @@ public class DataProviderController extends BaseController {
     @ApiOperation(value = "List tables")
     @GetMapping(value = "/{sourceId}/{database}/tables")
     public ResponseData<Set<String>> listTables(@PathVariable String sourceId,
-                                                @PathVariable String database) {
+                                                @PathVariable String database,
+                                                @RequestParam(required = false) String prefix) {
         checkBlank(sourceId, "sourceId");
         checkBlank(database, "database");
+        if (prefix != null) {
+            return ResponseData.success(dataProviderService.searchTables(sourceId, database, prefix));
+        }
         return ResponseData.success(dataProviderService.readTables(sourceId, database));
     }
 
+    @ApiOperation(value = "Refresh cached databases, tables and columns")
+    @PostMapping(value = "/{sourceId}/metadata/refresh")
+    public ResponseData<Boolean> refreshMetadata(@PathVariable String sourceId) {
+        checkBlank(sourceId, "sourceId");
+        dataProviderService.refreshMetadata(sourceId);
+        return ResponseData.success(true);
+    }
+
     @ApiOperation(value = "Get table Info")
     @GetMapping(value = "/{sourceId}/{database}/{table}/columns")
     public ResponseData<Set<Column>> getTableInfo(@PathVariable String sourceId,
@@ -88,6 +102,13 @@ public class DataProviderController extends BaseController {
         return ResponseData.success(dataProviderService.readTableColumns(sourceId, database, table));
     }
 
+    @ApiOperation(value = "Get connection pool statistics")
+    @GetMapping(value = "/{sourceId}/pool")
+    public ResponseData<PoolStatistics> getPoolStatistics(@PathVariable String sourceId) {
+        checkBlank(sourceId, "sourceId");
+        return ResponseData.success(dataProviderService.getPoolStatistics(sourceId));
+    }
+
     @ApiOperation(value = "Execute Script")
     @PostMapping(value = "/execute/test")
     public ResponseData<Dataframe> testExecute(@RequestBody TestExecuteParam executeParam) throws Exception {
@@ -100,6 +121,27 @@ public class DataProviderController extends BaseController {
         return ResponseData.success(dataProviderService.execute(viewExecuteParam));
     }
 
+    @ApiOperation(value = "List running queries of an organization")
+    @GetMapping(value = "/queries")
+    public ResponseData<List<RunningQuery>> listRunningQueries(@RequestParam String orgId) {
+        checkBlank(orgId, "orgId");
+        return ResponseData.success(dataProviderService.listRunningQueries(orgId));
+    }
+
+    @ApiOperation(value = "Get connection governor statistics")
+    @GetMapping(value = "/governor")
+    public ResponseData<GovernorStatistics> getGovernorStatistics(@RequestParam String orgId) {
+        checkBlank(orgId, "orgId");
+        return ResponseData.success(dataProviderService.getGovernorStatistics(orgId));
+    }
+
+    @ApiOperation(value = "Cancel a running query")
+    @DeleteMapping(value = "/queries/{queryId}")
+    public ResponseData<Boolean> cancelQuery(@PathVariable String queryId) {
+        checkBlank(queryId, "queryId");
+        return ResponseData.success(dataProviderService.cancelQuery(queryId));
+    }
+
     @ApiOperation(value = "get all supported functions for this data source type")
     @PostMapping(value = "/function/support/{sourceId}")
     public ResponseData<Set<StdSqlOperator>> supportedStdFunctions(@PathVariable String sourceId) {
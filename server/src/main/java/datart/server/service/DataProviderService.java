@@ -2,6 +2,8 @@ package datart.server.service;
 
 
 import datart.core.data.provider.*;
+import datart.data.provider.base.GovernorStatistics;
+import datart.data.provider.base.RunningQuery;
 import datart.server.base.params.ViewExecuteParam;
 import datart.server.base.params.TestExecuteParam;
 
@@ -22,16 +24,52 @@ public interface DataProviderService {
 
     Set<String> readTables(String sourceId, String database);
 
+    /**
+     * 按前缀（忽略大小写）查找表名，结果按名称排序
+     */
+    Set<String> searchTables(String sourceId, String database, String prefix);
+
+    void refreshMetadata(String sourceId);
+
     Set<Column> readTableColumns(String sourceId, String schema, String table);
 
     Dataframe testExecute(TestExecuteParam testExecuteParam) throws Exception;
 
     Dataframe execute(ViewExecuteParam viewExecuteParam) throws Exception;
 
+    /**
+     * 以游标的方式执行视图查询，数据在回调中逐行读取，不在内存中汇总，回调返回后关闭游标。
+     * 读取的行与 execute 的分页范围一致。
+     */
+    void executeStreaming(ViewExecuteParam viewExecuteParam, CursorConsumer consumer) throws Exception;
+
+    List<RunningQuery> listRunningQueries(String orgId);
+
+    /**
+     * 全局连接调度的统计，包含组织自身的占用和排队情况
+     */
+    GovernorStatistics getGovernorStatistics(String orgId);
+
+    /**
+     * 释放数据源的连接池等资源，数据源修改或删除后调用
+     */
+    void resetSource(String sourceId);
+
+    PoolStatistics getPoolStatistics(String sourceId);
+
+    boolean cancelQuery(String queryId);
+
     Set<StdSqlOperator> supportedStdFunctions(String sourceId);
 
     boolean validateFunction(String sourceId, String snippet);
 
     String decryptValue(String value);
 
+    @FunctionalInterface
+    interface CursorConsumer {
+
+        void accept(DataCursor cursor) throws Exception;
+
+    }
+
 }
@@ -6,7 +6,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import datart.core.base.consts.AttachmentType;
 import datart.core.base.consts.FileOwner;
 import datart.core.common.*;
-import datart.core.data.provider.Dataframe;
 import datart.core.entity.Folder;
 import datart.core.entity.Schedule;
 import datart.core.entity.ScheduleLog;
@@ -150,9 +149,8 @@ public abstract class ScheduleJob implements Job, Closeable {
 
     private void downloadExcel(ViewExecuteParam viewExecuteParam) throws Exception {
         DataProviderService dataProviderService = Application.getBean(DataProviderService.class);
-        Dataframe dataframe = dataProviderService.execute(viewExecuteParam);
         Workbook workbook = POIUtils.createEmpty();
-        POIUtils.withSheet(workbook, "sheet0", dataframe);
+        dataProviderService.executeStreaming(viewExecuteParam, cursor -> POIUtils.withSheet(workbook, "sheet0", cursor));
         File tempFile = File.createTempFile(UUIDGenerator.generate(), ".xlsx");
         POIUtils.save(workbook, tempFile.getPath(), true);
         attachments.add(tempFile);
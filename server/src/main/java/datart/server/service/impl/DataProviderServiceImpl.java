@@ -24,11 +24,17 @@ import datart.core.base.PageInfo;
 import datart.core.base.consts.Const;
 import datart.core.base.consts.ValueType;
 import datart.core.base.consts.VariableTypeEnum;
+import datart.core.common.UUIDGenerator;
 import datart.core.data.provider.*;
 import datart.core.entity.RelSubjectColumns;
 import datart.core.entity.Source;
+import datart.core.entity.User;
 import datart.core.entity.View;
 import datart.core.mappers.ext.RelSubjectColumnsMapperExt;
+import datart.data.provider.base.ConnectionGovernor;
+import datart.data.provider.base.GovernorStatistics;
+import datart.data.provider.base.RunningQuery;
+import datart.data.provider.base.RunningQueryRegistry;
 import datart.security.util.AESUtil;
 import datart.server.base.dto.VariableValue;
 import datart.server.base.exception.ServerException;
@@ -64,6 +70,8 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
 
     private static final String SERVER_AGGREGATE = "serverAggregate";
 
+    private static final String QUERY_TIMEOUT = "queryTimeout";
+
     private ObjectMapper objectMapper;
 
     private final DataProviderManager dataProviderManager;
@@ -126,6 +134,22 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
         return dataProviderManager.readTables(toDataProviderConfig(source), database);
     }
 
+    @Override
+    public Set<String> searchTables(String sourceId, String database, String prefix) {
+        Set<String> tables = readTables(sourceId, database);
+        String lowerPrefix = StringUtils.isBlank(prefix) ? "" : prefix.toLowerCase();
+        return tables.stream()
+                .filter(table -> table != null && table.toLowerCase().startsWith(lowerPrefix))
+                .sorted()
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @Override
+    public void refreshMetadata(String sourceId) {
+        Source source = retrieve(sourceId, Source.class, true);
+        dataProviderManager.refreshMetadata(toDataProviderConfig(source));
+    }
+
     @Override
     public Set<Column> readTableColumns(String sourceId, String database, String table) {
         Source source = retrieve(sourceId, Source.class, false);
@@ -178,6 +202,7 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
         }
         QueryScript queryScript = QueryScript.builder()
                 .test(true)
+                .sourceId(source.getId())
                 .script(testExecuteParam.getScript())
                 .variables(variables)
                 .build();
@@ -189,7 +214,18 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
                 .serverAggregate((boolean) providerSource.getProperties().getOrDefault(SERVER_AGGREGATE, false))
                 .cacheEnable(false)
                 .build();
-        return dataProviderManager.execute(providerSource, queryScript, executeParam);
+        RunningQueryRegistry.begin(RunningQuery.builder()
+                .queryId(toQueryId(testExecuteParam.getQueryId()))
+                .orgId(source.getOrgId())
+                .userId(getCurrentUserId())
+                .sourceId(source.getId())
+                .startTime(new Date())
+                .build());
+        try {
+            return dataProviderManager.execute(providerSource, queryScript, executeParam);
+        } finally {
+            RunningQueryRegistry.end();
+        }
     }
 
     @Override
@@ -199,6 +235,48 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
             return Dataframe.empty();
         }
 
+        ViewQuery query = prepareQuery(viewExecuteParam);
+
+        RunningQueryRegistry.begin(query.runningQuery);
+        Dataframe dataframe;
+        try {
+            dataframe = dataProviderManager.execute(query.source, query.script, query.param);
+        } finally {
+            RunningQueryRegistry.end();
+        }
+
+        if (viewExecuteParam.isScript()) {
+            try {
+                viewService.requirePermission(query.view, Const.MANAGE);
+            } catch (Exception e) {
+                dataframe.setScript(null);
+            }
+        } else {
+            dataframe.setScript(null);
+        }
+        return dataframe;
+    }
+
+    @Override
+    public void executeStreaming(ViewExecuteParam viewExecuteParam, CursorConsumer consumer) throws Exception {
+
+        if (viewExecuteParam.isEmpty()) {
+            consumer.accept(new DataframeCursor(Dataframe.empty()));
+            return;
+        }
+
+        ViewQuery query = prepareQuery(viewExecuteParam);
+
+        RunningQueryRegistry.begin(query.runningQuery);
+        try (DataCursor cursor = dataProviderManager.executeStreaming(query.source, query.script, query.param)) {
+            consumer.accept(new PagedCursor(cursor, query.param.getPageInfo()));
+        } finally {
+            RunningQueryRegistry.end();
+        }
+    }
+
+    private ViewQuery prepareQuery(ViewExecuteParam viewExecuteParam) {
+
         View view = retrieve(viewExecuteParam.getViewId(), View.class, true);
         //datasource
         Source source = retrieve(view.getSourceId(), Source.class, false);
@@ -215,6 +293,8 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
 
         QueryScript queryScript = QueryScript.builder()
                 .test(false)
+                .sourceId(source.getId())
+                .viewId(view.getId())
                 .script(view.getScript())
                 .variables(variables)
                 .build();
@@ -235,18 +315,61 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
                 .cacheExpires(viewExecuteParam.getCacheExpires())
                 .build();
 
-        Dataframe dataframe = dataProviderManager.execute(providerSource, queryScript, queryParam);
+        RunningQuery runningQuery = RunningQuery.builder()
+                .queryId(toQueryId(viewExecuteParam.getQueryId()))
+                .orgId(view.getOrgId())
+                .userId(getCurrentUserId())
+                .sourceId(source.getId())
+                .viewId(view.getId())
+                .startTime(new Date())
+                .timeout(parseQueryTimeout(view))
+                .requestedTimeout(viewExecuteParam.getQueryTimeout())
+                .build();
 
-        if (viewExecuteParam.isScript()) {
-            try {
-                viewService.requirePermission(view, Const.MANAGE);
-            } catch (Exception e) {
-                dataframe.setScript(null);
-            }
-        } else {
-            dataframe.setScript(null);
+        return new ViewQuery(view, providerSource, queryScript, queryParam, runningQuery);
+    }
+
+    @Override
+    public List<RunningQuery> listRunningQueries(String orgId) {
+        securityManager.requireOrgOwner(orgId);
+        return RunningQueryRegistry.list()
+                .stream()
+                .filter(query -> orgId.equals(query.getOrgId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public GovernorStatistics getGovernorStatistics(String orgId) {
+        securityManager.requireOrgOwner(orgId);
+        return ConnectionGovernor.getStatistics(orgId);
+    }
+
+    @Override
+    public boolean cancelQuery(String queryId) {
+        // 先按当前用户提交时的查询ID查找，再按查询列表中的完整ID查找
+        RunningQuery query = RunningQueryRegistry.get(toUserQueryId(queryId));
+        if (query == null) {
+            query = RunningQueryRegistry.get(queryId);
         }
-        return dataframe;
+        if (query == null) {
+            return false;
+        }
+        if (query.getUserId() == null || !query.getUserId().equals(getCurrentUserId())) {
+            securityManager.requireOrgOwner(query.getOrgId());
+        }
+        return RunningQueryRegistry.cancel(query.getQueryId());
+    }
+
+    @Override
+    public void resetSource(String sourceId) {
+        Source source = retrieve(sourceId, Source.class, false);
+        dataProviderManager.resetSource(toDataProviderConfig(source));
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics(String sourceId) {
+        Source source = retrieve(sourceId, Source.class, true);
+        return dataProviderManager.getPoolStatistics(toDataProviderConfig(source));
     }
 
     @Override
@@ -370,4 +493,110 @@ public class DataProviderServiceImpl extends BaseService implements DataProvider
         }
     }
 
+    /**
+     * 客户端提交的查询ID加上当前用户ID作为前缀，避免与其他用户的查询冲突；未提交或没有登录用户时由服务端生成
+     */
+    private String toQueryId(String queryId) {
+        String userQueryId = StringUtils.isBlank(queryId) ? null : toUserQueryId(queryId);
+        return userQueryId == null ? UUIDGenerator.generate() : userQueryId;
+    }
+
+    private String toUserQueryId(String queryId) {
+        String userId = getCurrentUserId();
+        return userId == null ? null : userId + ":" + queryId;
+    }
+
+    private String getCurrentUserId() {
+        User user = getCurrentUser();
+        return user == null ? null : user.getId();
+    }
+
+    private int parseQueryTimeout(View view) {
+        if (StringUtils.isBlank(view.getConfig())) {
+            return 0;
+        }
+        try {
+            Map<String, Object> config = objectMapper.readValue(view.getConfig(), HashMap.class);
+            Object timeout = config.get(QUERY_TIMEOUT);
+            return timeout == null ? 0 : Integer.parseInt(timeout.toString());
+        } catch (Exception e) {
+            log.warn("Invalid view config of " + view.getId(), e);
+            return 0;
+        }
+    }
+
+    private static class ViewQuery {
+
+        private final View view;
+
+        private final DataProviderSource source;
+
+        private final QueryScript script;
+
+        private final ExecuteParam param;
+
+        private final RunningQuery runningQuery;
+
+        private ViewQuery(View view, DataProviderSource source, QueryScript script, ExecuteParam param, RunningQuery runningQuery) {
+            this.view = view;
+            this.source = source;
+            this.script = script;
+            this.param = param;
+            this.runningQuery = runningQuery;
+        }
+    }
+
+    /**
+     * 按分页参数截取游标中的行，与 execute 返回的数据范围一致
+     */
+    private static class PagedCursor implements DataCursor {
+
+        private final DataCursor cursor;
+
+        private long skip;
+
+        private long remaining;
+
+        private PagedCursor(DataCursor cursor, PageInfo pageInfo) {
+            this.cursor = cursor;
+            if (pageInfo == null || pageInfo.getPageSize() <= 0) {
+                this.remaining = Long.MAX_VALUE;
+            } else {
+                this.skip = Math.max(0, pageInfo.getPageNo() - 1) * pageInfo.getPageSize();
+                this.remaining = pageInfo.getPageSize();
+            }
+        }
+
+        @Override
+        public List<Column> getColumns() {
+            return cursor.getColumns();
+        }
+
+        @Override
+        public boolean next() throws Exception {
+            for (; skip > 0; skip--) {
+                if (!cursor.next()) {
+                    skip = 0;
+                    remaining = 0;
+                    return false;
+                }
+            }
+            if (remaining <= 0 || !cursor.next()) {
+                return false;
+            }
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public Object get(int columnIndex) throws Exception {
+            return cursor.get(columnIndex);
+        }
+
+        @Override
+        public void close() throws IOException {
+            cursor.close();
+        }
+    }
+
 }
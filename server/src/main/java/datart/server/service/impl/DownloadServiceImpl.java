@@ -23,7 +23,6 @@ import datart.core.common.FileUtils;
 import datart.core.common.POIUtils;
 import datart.core.common.TaskExecutor;
 import datart.core.common.UUIDGenerator;
-import datart.core.data.provider.Dataframe;
 import datart.core.entity.Download;
 import datart.core.mappers.ext.DownloadMapperExt;
 import datart.server.base.exception.NotAllowedException;
@@ -100,8 +99,9 @@ public class DownloadServiceImpl extends BaseService implements DownloadService
                     for (int i = 0; i < downloadParams.getDownloadParams().size(); i++) {
                         ViewExecuteParam viewExecuteParam = downloadParams.getDownloadParams().get(0);
                         String vizName = viewExecuteParam.getVizName();
-                        Dataframe dataframe = dataProviderService.execute(downloadParams.getDownloadParams().get(i));
-                        POIUtils.withSheet(workbook, StringUtils.isEmpty(vizName) ? "Sheet" + i : vizName, dataframe);
+                        String sheetName = StringUtils.isEmpty(vizName) ? "Sheet" + i : vizName;
+                        dataProviderService.executeStreaming(downloadParams.getDownloadParams().get(i),
+                                cursor -> POIUtils.withSheet(workbook, sheetName, cursor));
                     }
                     try {
                         POIUtils.save(workbook, FileUtils.withBasePath(path), true);
@@ -1,7 +1,10 @@
 package datart.server.service.impl;
 
 import datart.core.common.Cache;
+import datart.server.config.DataframeRedisSerializer;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.TimeUnit;
@@ -10,10 +13,15 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class RedisCacheImpl implements Cache {
 
-    private final RedisTemplate redisTemplate;
+    private final RedisTemplate<Object, Object> redisTemplate;
 
-    public RedisCacheImpl(RedisTemplate redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public RedisCacheImpl(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<Object, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new JdkSerializationRedisSerializer());
+        template.setValueSerializer(new DataframeRedisSerializer());
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
     }
 
 
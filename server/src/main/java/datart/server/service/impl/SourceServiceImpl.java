@@ -117,7 +117,15 @@ public class SourceServiceImpl extends BaseService implements SourceService {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        return SourceService.super.update(updateParam);
+        boolean success = SourceService.super.update(updateParam);
+        resetSource(updateParam.getId());
+        return success;
+    }
+
+    @Override
+    public boolean delete(String id, boolean archive) {
+        resetSource(id);
+        return SourceService.super.delete(id, archive);
     }
 
     @Override
@@ -135,6 +143,17 @@ public class SourceServiceImpl extends BaseService implements SourceService {
         roleService.grantPermission(Collections.singletonList(permissionInfo));
     }
 
+    /**
+     * 数据源修改或删除后释放已创建的连接池，下次查询时按新配置重建
+     */
+    private void resetSource(String sourceId) {
+        try {
+            dataProviderService.resetSource(sourceId);
+        } catch (Exception e) {
+            log.warn("Failed to reset data provider resources of source " + sourceId, e);
+        }
+    }
+
     private String encryptConfig(String type, String config) throws Exception {
         if (StringUtils.isEmpty(config)) {
             return config;